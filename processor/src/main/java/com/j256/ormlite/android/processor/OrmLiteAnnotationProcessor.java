@@ -0,0 +1,963 @@
+package com.j256.ormlite.android.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.table.DatabaseTable;
+
+/**
+ * Annotation processor which generates the table configurations of the ORMLite entities at compile time so that no
+ * annotation reflection or config file parsing is needed when the application starts.
+ * 
+ * <p>
+ * For each entity class Foo, a Foo_TableConfig class is generated in the same package with a static
+ * createTableConfig() method that builds the DatabaseTableConfig directly. A {@value #REGISTRY_SIMPLE_NAME} class is
+ * also generated in each package that has entities which implements the Android TableConfigProvider interface. The
+ * registries are listed in the META-INF/services files of the provider interfaces so the DatabaseTableConfigUtil class
+ * in ormlite-android finds them with the ServiceLoader at runtime and asks them for configurations before using
+ * reflection.
+ * </p>
+ * 
+ * <p>
+ * If all of the persisted fields of an entity are simple types (primitives, their wrappers, strings, and enums stored
+ * by name) that can be set from its package, a Foo_RowMapper class is also generated which maps result rows by column
+ * index without reflection. These are returned by the registry as the Android RowMapperProvider and they report the
+ * fields and columns that they map so they are only used with DAOs whose table configuration agrees with them.
+ * </p>
+ * 
+ * <p>
+ * Entities that can't be referenced from their package (private nested classes) or that use the javax.persistence
+ * annotations are skipped and are still configured with reflection at runtime. Each module that is compiled with the
+ * processor gets its own registries and service files which are merged when the application is packaged. Two modules
+ * should not have entities in the same package since their registries would have the same name.
+ * </p>
+ * 
+ * @author graywatson
+ */
+@SupportedAnnotationTypes({ "com.j256.ormlite.table.DatabaseTable", "com.j256.ormlite.field.DatabaseField",
+		"com.j256.ormlite.field.ForeignCollectionField" })
+public class OrmLiteAnnotationProcessor extends AbstractProcessor {
+
+	public static final String REGISTRY_SIMPLE_NAME = "OrmLiteGeneratedRegistry";
+	public static final String TABLE_CONFIG_SUFFIX = "_TableConfig";
+	public static final String ROW_MAPPER_SUFFIX = "_RowMapper";
+
+	private static final String DATABASE_FIELD_CONFIG = "com.j256.ormlite.field.DatabaseFieldConfig";
+	private static final String DATABASE_TABLE_CONFIG = "com.j256.ormlite.table.DatabaseTableConfig";
+	private static final String DATABASE_RESULTS = "com.j256.ormlite.support.DatabaseResults";
+	private static final String DIRECT_ROW_MAPPER = "com.j256.ormlite.android.DirectRowMapper";
+	private static final String ANDROID_DATABASE_RESULTS = "com.j256.ormlite.android.AndroidDatabaseResults";
+	private static final String TABLE_CONFIG_PROVIDER = "com.j256.ormlite.android.TableConfigProvider";
+	private static final String ROW_MAPPER_PROVIDER = "com.j256.ormlite.android.RowMapperProvider";
+	private static final String JAVAX_ENTITY = "javax.persistence.Entity";
+
+	// entity binary class-name -> generated table config class-name
+	private final Map<String, String> tableConfigClasses = new TreeMap<String, String>();
+	// entity binary class-name -> generated row mapper class-name
+	private final Map<String, String> rowMapperClasses = new TreeMap<String, String>();
+	// package -> entities in the package that had table configs generated
+	private final Map<String, List<Element>> packageEntities = new TreeMap<String, List<Element>>();
+	private boolean registryWritten;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> entities = new LinkedHashSet<TypeElement>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(DatabaseTable.class)) {
+			if (element.getKind() == ElementKind.CLASS) {
+				entities.add((TypeElement) element);
+			}
+		}
+		addEnclosingClasses(entities, roundEnv.getElementsAnnotatedWith(DatabaseField.class));
+		addEnclosingClasses(entities, roundEnv.getElementsAnnotatedWith(ForeignCollectionField.class));
+
+		boolean generated = false;
+		for (TypeElement entity : entities) {
+			String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+			if (tableConfigClasses.containsKey(binaryName) || !isGeneratable(entity)) {
+				continue;
+			}
+			String tableConfigClass = writeTableConfig(entity);
+			if (tableConfigClass != null) {
+				tableConfigClasses.put(binaryName, tableConfigClass);
+				String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+				List<Element> entityList = packageEntities.get(packageName);
+				if (entityList == null) {
+					entityList = new ArrayList<Element>();
+					packageEntities.put(packageName, entityList);
+				}
+				entityList.add(entity);
+				generated = true;
+				String rowMapperClass = writeRowMapper(entity);
+				if (rowMapperClass != null) {
+					rowMapperClasses.put(binaryName, rowMapperClass);
+				}
+			}
+		}
+
+		/*
+		 * The registries are written in the first round that doesn't find any new entities so that they are still
+		 * compiled in a following round.
+		 */
+		if (!generated && !registryWritten && !tableConfigClasses.isEmpty()) {
+			List<String> registryClasses = new ArrayList<String>();
+			for (Map.Entry<String, List<Element>> entry : packageEntities.entrySet()) {
+				String registryClass = writeRegistry(entry.getKey(), entry.getValue());
+				if (registryClass != null) {
+					registryClasses.add(registryClass);
+				}
+			}
+			writeServiceFile(TABLE_CONFIG_PROVIDER, registryClasses);
+			writeServiceFile(ROW_MAPPER_PROVIDER, registryClasses);
+			registryWritten = true;
+		}
+		// other processors may be interested in the ORMLite annotations as well
+		return false;
+	}
+
+	private void addEnclosingClasses(Set<TypeElement> entities, Set<? extends Element> fields) {
+		for (Element field : fields) {
+			Element enclosing = field.getEnclosingElement();
+			if (field.getKind() == ElementKind.FIELD && enclosing.getKind() == ElementKind.CLASS) {
+				entities.add((TypeElement) enclosing);
+			}
+		}
+	}
+
+	/**
+	 * Return true if we can generate code that references the entity from its package.
+	 */
+	private boolean isGeneratable(TypeElement entity) {
+		if (entity.getModifiers().contains(Modifier.ABSTRACT)) {
+			// abstract classes are only used as super-classes so they never get DAOs
+			return false;
+		}
+		if (processingEnv.getElementUtils().getPackageOf(entity).isUnnamed()) {
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+					"Not generating table config for " + entity + " because it is in the unnamed package", entity);
+			return false;
+		}
+		for (Element element = entity; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			TypeElement type = (TypeElement) element;
+			NestingKind nestingKind = type.getNestingKind();
+			if (nestingKind == NestingKind.LOCAL || nestingKind == NestingKind.ANONYMOUS
+					|| type.getModifiers().contains(Modifier.PRIVATE)) {
+				processingEnv.getMessager().printMessage(Kind.NOTE,
+						"Not generating table config for " + entity + " because it is not visible in its package",
+						entity);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Write the table config class for the entity.
+	 * 
+	 * @return The name of the generated class or null if the entity has no persisted fields.
+	 */
+	private String writeTableConfig(TypeElement entity) {
+		List<String> fieldStatements = new ArrayList<String>();
+		// walk up the classes like DatabaseTableConfigUtil.fromClass()
+		for (TypeElement walk = entity; walk != null; walk = getSuperclass(walk)) {
+			for (VariableElement field : ElementFilter.fieldsIn(walk.getEnclosedElements())) {
+				if (!appendFieldConfig(fieldStatements, field)) {
+					return null;
+				}
+			}
+		}
+		if (fieldStatements.isEmpty()) {
+			return null;
+		}
+
+		String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+		// Outer$Inner becomes Outer_Inner_TableConfig
+		String simpleName = binaryName.substring(packageName.length() + 1).replace('$', '_') + TABLE_CONFIG_SUFFIX;
+		String className = packageName + "." + simpleName;
+		String entityType = processingEnv.getTypeUtils().erasure(entity.asType()).toString();
+
+		PrintWriter writer = null;
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(className, entity);
+			writer = new PrintWriter(file.openWriter());
+			writer.println("package " + packageName + ";");
+			writer.println();
+			writer.println("/**");
+			writer.println(" * Table configuration for {@link " + entityType + "}.");
+			writer.println(" * ");
+			writer.println(" * <p>");
+			writer.println(" * Generated by " + getClass().getName() + ". Do not edit.");
+			writer.println(" * </p>");
+			writer.println(" */");
+			writer.println("public final class " + simpleName + " {");
+			writer.println();
+			writer.println("\tprivate " + simpleName + "() {");
+			writer.println("\t}");
+			writer.println();
+			writer.println("\tpublic static " + DATABASE_TABLE_CONFIG + "<" + entityType + "> createTableConfig() {");
+			writer.println("\t\tjava.util.List<" + DATABASE_FIELD_CONFIG + "> fieldConfigs = new java.util.ArrayList<"
+					+ DATABASE_FIELD_CONFIG + ">(" + countFields(fieldStatements) + ");");
+			writer.println("\t\t" + DATABASE_FIELD_CONFIG + " config;");
+			for (String statement : fieldStatements) {
+				writer.println("\t\t" + statement);
+			}
+			writer.println("\t\treturn new " + DATABASE_TABLE_CONFIG + "<" + entityType + ">(" + entityType
+					+ ".class, " + quote(extractTableName(entity)) + ", fieldConfigs);");
+			writer.println("\t}");
+			writer.println("}");
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not write table config for " + entity + ": " + e.getMessage(), entity);
+			return null;
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return className;
+	}
+
+	private String writeRegistry(String packageName, List<Element> entities) {
+		// entities in the default package get a registry there as well
+		String prefix = (packageName.length() == 0 ? "" : packageName + ".");
+		String className = prefix + REGISTRY_SIMPLE_NAME;
+		PrintWriter writer = null;
+		try {
+			JavaFileObject file =
+					processingEnv.getFiler().createSourceFile(className, entities.toArray(new Element[entities.size()]));
+			writer = new PrintWriter(file.openWriter());
+			if (prefix.length() > 0) {
+				writer.println("package " + packageName + ";");
+				writer.println();
+			}
+			writer.println("/**");
+			writer.println(" * Registry of the generated table configurations and row mappers of the package which is");
+			writer.println(" * loaded by DatabaseTableConfigUtil and RowMapperRegistry.");
+			writer.println(" * ");
+			writer.println(" * <p>");
+			writer.println(" * Generated by " + getClass().getName() + ". Do not edit.");
+			writer.println(" * </p>");
+			writer.println(" */");
+			writer.println("public final class " + REGISTRY_SIMPLE_NAME + " implements " + TABLE_CONFIG_PROVIDER + ",");
+			writer.println("\t\t" + ROW_MAPPER_PROVIDER + " {");
+			writer.println();
+			writer.println("\t@Override");
+			writer.println("\tpublic <T> " + DATABASE_TABLE_CONFIG + "<T> getTableConfig(");
+			writer.println("\t\t\tcom.j256.ormlite.support.ConnectionSource connectionSource, Class<T> clazz) {");
+			writer.println("\t\t" + DATABASE_TABLE_CONFIG + "<?> tableConfig;");
+			writer.println("\t\tswitch (clazz.getName()) {");
+			for (Map.Entry<String, String> entry : tableConfigClasses.entrySet()) {
+				if (!isInPackage(entry.getKey(), prefix)) {
+					continue;
+				}
+				writer.println("\t\t\tcase " + quote(entry.getKey()) + ":");
+				writer.println("\t\t\t\ttableConfig = " + entry.getValue() + ".createTableConfig();");
+				writer.println("\t\t\t\tbreak;");
+			}
+			writer.println("\t\t\tdefault:");
+			writer.println("\t\t\t\treturn null;");
+			writer.println("\t\t}");
+			writer.println("\t\t@SuppressWarnings(\"unchecked\")");
+			writer.println("\t\t" + DATABASE_TABLE_CONFIG + "<T> castTableConfig = (" + DATABASE_TABLE_CONFIG
+					+ "<T>) tableConfig;");
+			writer.println("\t\treturn castTableConfig;");
+			writer.println("\t}");
+			writer.println();
+			writer.println("\t@Override");
+			writer.println("\tpublic <T> " + DIRECT_ROW_MAPPER + "<T> getRowMapper(Class<T> clazz) {");
+			writer.println("\t\t" + DIRECT_ROW_MAPPER + "<?> rowMapper;");
+			writer.println("\t\tswitch (clazz.getName()) {");
+			for (Map.Entry<String, String> entry : rowMapperClasses.entrySet()) {
+				if (!isInPackage(entry.getKey(), prefix)) {
+					continue;
+				}
+				writer.println("\t\t\tcase " + quote(entry.getKey()) + ":");
+				writer.println("\t\t\t\trowMapper = new " + entry.getValue() + "();");
+				writer.println("\t\t\t\tbreak;");
+			}
+			writer.println("\t\t\tdefault:");
+			writer.println("\t\t\t\treturn null;");
+			writer.println("\t\t}");
+			writer.println("\t\t@SuppressWarnings(\"unchecked\")");
+			writer.println("\t\t" + DIRECT_ROW_MAPPER + "<T> castRowMapper = (" + DIRECT_ROW_MAPPER
+					+ "<T>) rowMapper;");
+			writer.println("\t\treturn castRowMapper;");
+			writer.println("\t}");
+			writer.println("}");
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not write table config registry " + className + ": " + e.getMessage());
+			return null;
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return className;
+	}
+
+	/**
+	 * Write the META-INF/services file of the interface which lists the registries so they can be found by the
+	 * ServiceLoader.
+	 */
+	private void writeServiceFile(String interfaceName, List<String> registryClasses) {
+		if (registryClasses.isEmpty()) {
+			return;
+		}
+		String resourceName = "META-INF/services/" + interfaceName;
+		Writer writer = null;
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+			writer = file.openWriter();
+			for (String registryClass : registryClasses) {
+				writer.write(registryClass);
+				writer.write('\n');
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not write service file " + resourceName + ": " + e.getMessage());
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					// ignored
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return true if the binary class-name is in the package and not in one of its sub-packages.
+	 */
+	private static boolean isInPackage(String binaryName, String packagePrefix) {
+		return binaryName.startsWith(packagePrefix) && binaryName.indexOf('.', packagePrefix.length()) < 0;
+	}
+
+	/**
+	 * Write the row mapper class for the entity.
+	 * 
+	 * @return The name of the generated class or null if the entity has fields that the row mapper can't handle in
+	 *         which case the rows are mapped with reflection at runtime.
+	 */
+	private String writeRowMapper(TypeElement entity) {
+		if (!hasAccessibleConstructor(entity)) {
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+					"Not generating row mapper for " + entity + " because it has no visible no-arg constructor",
+					entity);
+			return null;
+		}
+		List<MappedField> mappedFields = new ArrayList<MappedField>();
+		for (TypeElement walk = entity; walk != null; walk = getSuperclass(walk)) {
+			for (VariableElement field : ElementFilter.fieldsIn(walk.getEnclosedElements())) {
+				if (!addMappedField(mappedFields, entity, walk, field)) {
+					processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating row mapper for " + entity
+							+ " because field " + field.getSimpleName() + " can't be mapped directly", entity);
+					return null;
+				}
+			}
+		}
+
+		String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+		String simpleName = binaryName.substring(packageName.length() + 1).replace('$', '_') + ROW_MAPPER_SUFFIX;
+		String className = packageName + "." + simpleName;
+		String entityType = processingEnv.getTypeUtils().erasure(entity.asType()).toString();
+
+		PrintWriter writer = null;
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(className, entity);
+			writer = new PrintWriter(file.openWriter());
+			writer.println("package " + packageName + ";");
+			writer.println();
+			writer.println("/**");
+			writer.println(" * Maps result rows into {@link " + entityType + "} objects by column index.");
+			writer.println(" * ");
+			writer.println(" * <p>");
+			writer.println(" * Generated by " + getClass().getName() + ". Do not edit.");
+			writer.println(" * </p>");
+			writer.println(" */");
+			writer.println("public final class " + simpleName + " implements " + DIRECT_ROW_MAPPER + "<"
+					+ entityType + "> {");
+			writer.println();
+			writer.print("\tprivate static final String[] FIELD_NAMES = {");
+			for (int i = 0; i < mappedFields.size(); i++) {
+				if (i > 0) {
+					writer.print(",");
+				}
+				writer.print(" " + quote(mappedFields.get(i).javaFieldName));
+			}
+			writer.println(" };");
+			writer.print("\tprivate static final String[] COLUMN_NAMES = {");
+			for (int i = 0; i < mappedFields.size(); i++) {
+				if (i > 0) {
+					writer.print(",");
+				}
+				writer.print(" " + quote(mappedFields.get(i).columnName));
+			}
+			writer.println(" };");
+			writer.println();
+			writer.println("\tprivate volatile ColumnLayout lastLayout;");
+			writer.println();
+			writer.println("\t@Override");
+			writer.println("\tpublic " + entityType + " mapRow(" + DATABASE_RESULTS
+					+ " results) throws java.sql.SQLException {");
+			writer.println("\t\tint[] columns = findColumns(results);");
+			writer.println("\t\t" + entityType + " data = new " + entityType + "();");
+			writer.println("\t\tint column;");
+			for (int i = 0; i < mappedFields.size(); i++) {
+				MappedField mappedField = mappedFields.get(i);
+				writer.println("\t\tcolumn = columns[" + i + "];");
+				if (mappedField.primitive) {
+					// like the field-types, null values leave primitive fields alone
+					writer.println("\t\tif (column >= 0 && !results.wasNull(column)) {");
+				} else {
+					writer.println("\t\tif (column >= 0) {");
+				}
+				writer.println("\t\t\t" + mappedField.assignment(mappedField.readExpression(i)) + ";");
+				writer.println("\t\t}");
+			}
+			writer.println("\t\treturn data;");
+			writer.println("\t}");
+			writer.println();
+			writer.println("\t@Override");
+			writer.println("\tpublic String[] getFieldNames() {");
+			writer.println("\t\treturn FIELD_NAMES.clone();");
+			writer.println("\t}");
+			writer.println();
+			writer.println("\t@Override");
+			writer.println("\tpublic String[] getColumnNames() {");
+			writer.println("\t\treturn COLUMN_NAMES.clone();");
+			writer.println("\t}");
+			writer.println();
+			writer.println("\t/**");
+			writer.println("\t * Return the column index of each field or -1 if it is not in the results. These are cached");
+			writer.println("\t * by the layout of the results so they are usually only looked up once per query.");
+			writer.println("\t */");
+			writer.println("\tprivate int[] findColumns(" + DATABASE_RESULTS + " results) {");
+			writer.println("\t\tObject layoutKey = null;");
+			writer.println("\t\tif (results instanceof " + ANDROID_DATABASE_RESULTS + ") {");
+			writer.println("\t\t\tlayoutKey = ((" + ANDROID_DATABASE_RESULTS + ") results).getColumnLayout();");
+			writer.println("\t\t\tColumnLayout layout = lastLayout;");
+			writer.println("\t\t\tif (layout != null && layout.key == layoutKey) {");
+			writer.println("\t\t\t\treturn layout.columns;");
+			writer.println("\t\t\t}");
+			writer.println("\t\t}");
+			writer.println("\t\tint[] columns = new int[COLUMN_NAMES.length];");
+			writer.println("\t\tfor (int i = 0; i < COLUMN_NAMES.length; i++) {");
+			writer.println("\t\t\ttry {");
+			writer.println("\t\t\t\tcolumns[i] = results.findColumn(COLUMN_NAMES[i]);");
+			writer.println("\t\t\t} catch (java.sql.SQLException e) {");
+			writer.println("\t\t\t\t// the field was not selected");
+			writer.println("\t\t\t\tcolumns[i] = -1;");
+			writer.println("\t\t\t}");
+			writer.println("\t\t}");
+			writer.println("\t\tif (layoutKey != null) {");
+			writer.println("\t\t\tlastLayout = new ColumnLayout(layoutKey, columns);");
+			writer.println("\t\t}");
+			writer.println("\t\treturn columns;");
+			writer.println("\t}");
+			for (int i = 0; i < mappedFields.size(); i++) {
+				MappedField mappedField = mappedFields.get(i);
+				if (mappedField.enumType != null) {
+					writer.println();
+					mappedField.writeEnumConverter(writer, i);
+				}
+			}
+			writer.println();
+			writer.println("\tprivate static final class ColumnLayout {");
+			writer.println("\t\tfinal Object key;");
+			writer.println("\t\tfinal int[] columns;");
+			writer.println();
+			writer.println("\t\tColumnLayout(Object key, int[] columns) {");
+			writer.println("\t\t\tthis.key = key;");
+			writer.println("\t\t\tthis.columns = columns;");
+			writer.println("\t\t}");
+			writer.println("\t}");
+			writer.println("}");
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not write row mapper for " + entity + ": " + e.getMessage(), entity);
+			return null;
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return className;
+	}
+
+	private boolean hasAccessibleConstructor(TypeElement entity) {
+		if (entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC)) {
+			// inner classes need an outer instance
+			return false;
+		}
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the field to the list if it is persisted.
+	 * 
+	 * @return False if the field is persisted but can't be mapped directly.
+	 */
+	private boolean addMappedField(List<MappedField> mappedFields, TypeElement entity, TypeElement declaringClass,
+			VariableElement field) {
+		if (findAnnotation(field, ForeignCollectionField.class.getName()) != null) {
+			// foreign collections need a DAO
+			return false;
+		}
+		AnnotationMirror databaseField = findAnnotation(field, DatabaseField.class.getName());
+		if (databaseField == null) {
+			return true;
+		}
+		Map<String, AnnotationValue> values = getExplicitValues(databaseField);
+		if (!isTrue(values.get("persisted"), true)) {
+			return true;
+		}
+		// these change how the value is converted or need other objects to be looked up
+		if (values.containsKey("dataType") || values.containsKey("persisterClass") || values.containsKey("format")
+				|| isTrue(values.get("foreign"), false)) {
+			return false;
+		}
+		// the field-types throw on null values for these which the row mappers don't do
+		if (isTrue(values.get("throwIfNull"), false)) {
+			return false;
+		}
+		MappedField mappedField = new MappedField();
+		String fieldName = field.getSimpleName().toString();
+		mappedField.javaFieldName = fieldName;
+		AnnotationValue columnName = values.get("columnName");
+		if (columnName != null && ((String) columnName.getValue()).length() > 0) {
+			mappedField.columnName = (String) columnName.getValue();
+		} else {
+			mappedField.columnName = fieldName;
+		}
+		if (!setFieldType(mappedField, field, values)) {
+			return false;
+		}
+
+		Set<Modifier> modifiers = field.getModifiers();
+		if (!isTrue(values.get("useGetSet"), false) && !modifiers.contains(Modifier.PRIVATE)
+				&& !modifiers.contains(Modifier.FINAL) && !modifiers.contains(Modifier.STATIC)
+				&& isAccessible(entity, declaringClass, modifiers)) {
+			mappedField.fieldName = fieldName;
+			mappedFields.add(mappedField);
+			return true;
+		}
+		String setterName = "set" + capitalize(fieldName);
+		for (ExecutableElement method : ElementFilter.methodsIn(declaringClass.getEnclosedElements())) {
+			if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1
+					&& processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())
+					&& !method.getModifiers().contains(Modifier.PRIVATE)
+					&& !method.getModifiers().contains(Modifier.STATIC)
+					&& isAccessible(entity, declaringClass, method.getModifiers())) {
+				mappedField.setterName = setterName;
+				mappedFields.add(mappedField);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Set the results method and conversion of the mapped field from the field's type.
+	 * 
+	 * @return False if the type is not supported.
+	 */
+	private boolean setFieldType(MappedField mappedField, VariableElement field, Map<String, AnnotationValue> values) {
+		TypeMirror type = field.asType();
+		if (type.getKind().isPrimitive()) {
+			mappedField.primitive = true;
+			mappedField.getterName = primitiveGetterName(type.getKind());
+			return (mappedField.getterName != null);
+		}
+		if (type.getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+		TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+		String typeName = typeElement.getQualifiedName().toString();
+		if (typeName.equals(String.class.getName())) {
+			mappedField.getterName = "getString";
+			return true;
+		}
+		if (typeElement.getKind() == ElementKind.ENUM) {
+			mappedField.enumType = typeName;
+			AnnotationValue unknownEnumName = values.get("unknownEnumName");
+			if (unknownEnumName != null && ((String) unknownEnumName.getValue()).length() > 0) {
+				// the table config generation has already reported unknown names
+				mappedField.unknownEnumConstant = findEnumConstant(field, (String) unknownEnumName.getValue());
+			}
+			mappedField.getterName = "getString";
+			return true;
+		}
+		try {
+			TypeKind primitiveKind = processingEnv.getTypeUtils().unboxedType(type).getKind();
+			mappedField.getterName = primitiveGetterName(primitiveKind);
+			mappedField.boxedType = typeName;
+			return (mappedField.getterName != null);
+		} catch (IllegalArgumentException e) {
+			// not a wrapper type
+			return false;
+		}
+	}
+
+	private String primitiveGetterName(TypeKind kind) {
+		switch (kind) {
+			case BOOLEAN:
+				return "getBoolean";
+			case BYTE:
+				return "getByte";
+			case SHORT:
+				return "getShort";
+			case INT:
+				return "getInt";
+			case LONG:
+				return "getLong";
+			case FLOAT:
+				return "getFloat";
+			case DOUBLE:
+				return "getDouble";
+			default:
+				// chars are stored differently by the different data types
+				return null;
+		}
+	}
+
+	/**
+	 * Return true if generated code in the entity's package can use a member with the modifiers.
+	 */
+	private boolean isAccessible(TypeElement entity, TypeElement declaringClass, Set<Modifier> modifiers) {
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			return true;
+		}
+		// package and protected members from a super-class in another package are not visible
+		return processingEnv.getElementUtils()
+				.getPackageOf(entity)
+				.equals(processingEnv.getElementUtils().getPackageOf(declaringClass));
+	}
+
+	private static boolean isTrue(AnnotationValue value, boolean defaultValue) {
+		if (value == null) {
+			return defaultValue;
+		} else {
+			return (Boolean) value.getValue();
+		}
+	}
+
+	/**
+	 * Add the statements that build the field's config if it is persisted. This only sets the properties that were
+	 * specified in the annotation since the rest have the same defaults in DatabaseFieldConfig.
+	 * 
+	 * @return False if there was an error and the entity should be skipped.
+	 */
+	private boolean appendFieldConfig(List<String> statements, VariableElement field) {
+		AnnotationMirror databaseField = findAnnotation(field, DatabaseField.class.getName());
+		AnnotationMirror foreignCollection = findAnnotation(field, ForeignCollectionField.class.getName());
+		if (databaseField == null && foreignCollection == null) {
+			return true;
+		}
+		String fieldName = field.getSimpleName().toString();
+		if (databaseField != null) {
+			Map<String, AnnotationValue> values = getExplicitValues(databaseField);
+			AnnotationValue persisted = values.get("persisted");
+			if (persisted != null && !((Boolean) persisted.getValue())) {
+				return true;
+			}
+			statements.add("config = new " + DATABASE_FIELD_CONFIG + "(" + quote(fieldName) + ");");
+			for (Map.Entry<String, AnnotationValue> entry : values.entrySet()) {
+				String name = entry.getKey();
+				Object value = entry.getValue().getValue();
+				if (name.equals("persisted")) {
+					continue;
+				} else if (name.equals("defaultValue")) {
+					if (!DatabaseField.DEFAULT_STRING.equals(value)) {
+						statements.add("config.setDefaultValue(" + quote((String) value) + ");");
+					}
+				} else if (name.equals("unknownEnumName")) {
+					if (((String) value).length() == 0) {
+						continue;
+					}
+					String enumConstant = findEnumConstant(field, (String) value);
+					if (enumConstant == null) {
+						processingEnv.getMessager().printMessage(Kind.ERROR,
+								"Unknown enum name " + value + " for field " + fieldName, field);
+						return false;
+					}
+					statements.add("config.setUnknownEnumValue(" + enumConstant + ");");
+				} else if (value instanceof String && ((String) value).length() == 0) {
+					// blank strings are the same as not specified
+					continue;
+				} else {
+					statements.add("config.set" + capitalize(name) + "(" + toLiteral(entry.getValue()) + ");");
+				}
+			}
+		} else {
+			Map<String, AnnotationValue> values = getExplicitValues(foreignCollection);
+			statements.add("config = new " + DATABASE_FIELD_CONFIG + "(" + quote(fieldName) + ");");
+			statements.add("config.setForeignCollection(true);");
+			appendSetter(statements, "setForeignCollectionEager", values.get("eager"));
+			if (values.containsKey("maxEagerForeignCollectionLevel")) {
+				// the deprecated name wins like in DatabaseFieldConfig
+				appendSetter(statements, "setForeignCollectionMaxEagerLevel",
+						values.get("maxEagerForeignCollectionLevel"));
+			} else {
+				appendSetter(statements, "setForeignCollectionMaxEagerLevel", values.get("maxEagerLevel"));
+			}
+			appendSetter(statements, "setForeignCollectionColumnName", values.get("columnName"));
+			appendSetter(statements, "setForeignCollectionOrderColumnName", values.get("orderColumnName"));
+			appendSetter(statements, "setForeignCollectionOrderAscending", values.get("orderAscending"));
+			AnnotationValue foreignFieldName = values.get("foreignFieldName");
+			if (foreignFieldName == null || ((String) foreignFieldName.getValue()).length() == 0) {
+				foreignFieldName = values.get("foreignColumnName");
+			}
+			appendSetter(statements, "setForeignCollectionForeignFieldName", foreignFieldName);
+		}
+		statements.add("fieldConfigs.add(config);");
+		return true;
+	}
+
+	private void appendSetter(List<String> statements, String setter, AnnotationValue value) {
+		if (value == null || (value.getValue() instanceof String && ((String) value.getValue()).length() == 0)) {
+			return;
+		}
+		statements.add("config." + setter + "(" + toLiteral(value) + ");");
+	}
+
+	private String extractTableName(TypeElement entity) {
+		AnnotationMirror databaseTable = findAnnotation(entity, DatabaseTable.class.getName());
+		if (databaseTable != null) {
+			AnnotationValue tableName = getExplicitValues(databaseTable).get("tableName");
+			if (tableName != null && ((String) tableName.getValue()).length() > 0) {
+				return (String) tableName.getValue();
+			}
+		}
+		AnnotationMirror entityAnnotation = findAnnotation(entity, JAVAX_ENTITY);
+		if (entityAnnotation != null) {
+			AnnotationValue name = getExplicitValues(entityAnnotation).get("name");
+			if (name != null && ((String) name.getValue()).length() > 0) {
+				return (String) name.getValue();
+			}
+		}
+		// like DatabaseTableConfig.extractTableName()
+		return entity.getSimpleName().toString().toLowerCase(Locale.ENGLISH);
+	}
+
+	private String findEnumConstant(VariableElement field, String name) {
+		TypeMirror type = field.asType();
+		if (type.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		TypeElement enumType = (TypeElement) ((DeclaredType) type).asElement();
+		if (enumType.getKind() != ElementKind.ENUM) {
+			return null;
+		}
+		for (Element element : enumType.getEnclosedElements()) {
+			if (element.getKind() == ElementKind.ENUM_CONSTANT && element.getSimpleName().contentEquals(name)) {
+				return enumType.getQualifiedName() + "." + name;
+			}
+		}
+		return null;
+	}
+
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+		if (superElement.getQualifiedName().contentEquals(Object.class.getName())) {
+			return null;
+		}
+		return superElement;
+	}
+
+	private AnnotationMirror findAnnotation(Element element, String annotationName) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the values that were set in the annotation, not including the default values.
+	 */
+	private Map<String, AnnotationValue> getExplicitValues(AnnotationMirror mirror) {
+		Map<String, AnnotationValue> values = new TreeMap<String, AnnotationValue>();
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues()
+				.entrySet()) {
+			values.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+		}
+		return values;
+	}
+
+	private String toLiteral(AnnotationValue annotationValue) {
+		Object value = annotationValue.getValue();
+		if (value instanceof String) {
+			return quote((String) value);
+		} else if (value instanceof VariableElement) {
+			// enum constant
+			VariableElement constant = (VariableElement) value;
+			return ((TypeElement) constant.getEnclosingElement()).getQualifiedName() + "." + constant.getSimpleName();
+		} else if (value instanceof TypeMirror) {
+			return processingEnv.getTypeUtils().erasure((TypeMirror) value) + ".class";
+		} else if (value instanceof Long) {
+			return value + "L";
+		} else {
+			// booleans and ints
+			return value.toString();
+		}
+	}
+
+	private static int countFields(List<String> statements) {
+		int count = 0;
+		for (String statement : statements) {
+			if (statement.startsWith("fieldConfigs.add(")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder(value.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			switch (ch) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (ch < ' ' || ch > '~') {
+						sb.append(String.format("\\u%04x", (int) ch));
+					} else {
+						sb.append(ch);
+					}
+					break;
+			}
+		}
+		sb.append('"');
+		return sb.toString();
+	}
+
+	/**
+	 * Information about how a field is read from the results and assigned in a generated row mapper.
+	 */
+	private static class MappedField {
+		// name of the java field which is checked against the table config at runtime
+		String javaFieldName;
+		String columnName;
+		String getterName;
+		boolean primitive;
+		// wrapper class for boxed primitives
+		String boxedType;
+		String enumType;
+		String unknownEnumConstant;
+		// set if the field is assigned directly
+		String fieldName;
+		// set if the field is assigned with its setter
+		String setterName;
+
+		public String readExpression(int fieldIndex) {
+			String read = "results." + getterName + "(column)";
+			if (enumType != null) {
+				return "toEnum" + fieldIndex + "(" + read + ")";
+			} else if (boxedType != null) {
+				return "(results.wasNull(column) ? null : " + boxedType + ".valueOf(" + read + "))";
+			} else {
+				return read;
+			}
+		}
+
+		public String assignment(String value) {
+			if (fieldName != null) {
+				return "data." + fieldName + " = " + value;
+			} else {
+				return "data." + setterName + "(" + value + ")";
+			}
+		}
+
+		/**
+		 * Write the method which converts the stored name into the enum like the enum-string data type.
+		 */
+		public void writeEnumConverter(PrintWriter writer, int fieldIndex) {
+			writer.println("\tprivate static " + enumType + " toEnum" + fieldIndex
+					+ "(String value) throws java.sql.SQLException {");
+			writer.println("\t\tif (value == null) {");
+			writer.println("\t\t\treturn null;");
+			writer.println("\t\t}");
+			writer.println("\t\ttry {");
+			writer.println("\t\t\treturn " + enumType + ".valueOf(value);");
+			writer.println("\t\t} catch (IllegalArgumentException e) {");
+			if (unknownEnumConstant == null) {
+				writer.println("\t\t\tthrow new java.sql.SQLException(\"Cannot get enum value of '\" + value + \"' for field \" + "
+						+ quote(columnName) + ", e);");
+			} else {
+				writer.println("\t\t\treturn " + unknownEnumConstant + ";");
+			}
+			writer.println("\t\t}");
+			writer.println("\t}");
+		}
+	}
+}
@@ -1,8 +1,15 @@
 package com.j256.ormlite.android;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.j256.ormlite.android.compat.ApiCompatibility;
 import com.j256.ormlite.android.compat.ApiCompatibility.CancellationHook;
@@ -16,8 +23,11 @@ import com.j256.ormlite.support.CompiledStatement;
 import com.j256.ormlite.support.DatabaseResults;
 
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
 import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 
 /**
  * Android implementation of the compiled statement.
@@ -34,21 +44,36 @@ public class AndroidCompiledStatement implements CompiledStatement {
 	private final String sql;
 	private final SQLiteDatabase db;
 	private final StatementType type;
-	private final boolean cancelQueriesEnabled;
 	private final boolean cacheStore;
+	private final boolean typedQueryArgs;
+	private boolean cancelQueriesEnabled;
 
 	private Cursor cursor;
 	private List<Object> args;
 	private Integer max;
-	private CancellationHook cancellationHook;
+	private long cursorWindowSize;
+	private long queryTimeoutMillis;
+	private volatile CancellationHook cancellationHook;
+	private volatile boolean canceled;
 
 	public AndroidCompiledStatement(String sql, SQLiteDatabase db, StatementType type, boolean cancelQueriesEnabled,
 			boolean cacheStore) {
+		this(sql, db, type, cancelQueriesEnabled, cacheStore, false);
+	}
+
+	/**
+	 * @param typedQueryArgs
+	 *            Set to true to bind numbers and blobs to queries with their native sqlite types instead of converting
+	 *            them to strings.
+	 */
+	public AndroidCompiledStatement(String sql, SQLiteDatabase db, StatementType type, boolean cancelQueriesEnabled,
+			boolean cacheStore, boolean typedQueryArgs) {
 		this.sql = sql;
 		this.db = db;
 		this.type = type;
 		this.cancelQueriesEnabled = cancelQueriesEnabled;
 		this.cacheStore = cacheStore;
+		this.typedQueryArgs = typedQueryArgs;
 	}
 
 	@Override
@@ -67,7 +92,7 @@ public class AndroidCompiledStatement implements CompiledStatement {
 		if (!type.isOkForQuery()) {
 			throw new IllegalArgumentException("Cannot call query on a " + type + " statement");
 		}
-		return new AndroidDatabaseResults(getCursor(), objectCache, cacheStore);
+		return new AndroidDatabaseResults(getCursor(), objectCache, cacheStore, sql);
 	}
 
 	@Override
@@ -111,13 +136,26 @@ public class AndroidCompiledStatement implements CompiledStatement {
 		}
 	}
 
+	/**
+	 * Cancel the query if cancellation is enabled. This can be called from another thread. If the query has not been
+	 * started yet then it will be canceled as soon as it starts.
+	 */
 	@Override
 	public void cancel() {
-		if (cancellationHook != null) {
-			cancellationHook.cancel();
+		canceled = true;
+		CancellationHook hook = cancellationHook;
+		if (hook != null) {
+			hook.cancel();
 		}
 	}
 
+	/**
+	 * Return true if {@link #cancel()} has been called on this statement.
+	 */
+	public boolean isCanceled() {
+		return canceled;
+	}
+
 	@Override
 	public void setObject(int parameterIndex, Object obj, SqlType sqlType) throws SQLException {
 		isInPrep();
@@ -130,17 +168,24 @@ public class AndroidCompiledStatement implements CompiledStatement {
 		}
 
 		switch (sqlType) {
-			case STRING:
-			case LONG_STRING:
-			case DATE:
 			case BOOLEAN:
-			case CHAR:
 			case BYTE:
 			case SHORT:
 			case INTEGER:
 			case LONG:
 			case FLOAT:
 			case DOUBLE:
+				if (typedQueryArgs) {
+					// these are bound with their native types by bindArgs()
+					args.add(parameterIndex, obj);
+				} else {
+					args.add(parameterIndex, obj.toString());
+				}
+				break;
+			case STRING:
+			case LONG_STRING:
+			case DATE:
+			case CHAR:
 				args.add(parameterIndex, obj.toString());
 				break;
 			case BYTE_ARRAY:
@@ -164,9 +209,34 @@ public class AndroidCompiledStatement implements CompiledStatement {
 		this.max = max;
 	}
 
+	/**
+	 * Set to true to allow the query to be canceled with {@link #cancel()}. This overrides the setting from the
+	 * connection source for this statement. Query cancellation is only supported in Android JELLY_BEAN (API 16) and
+	 * after.
+	 */
+	public void setCancelQueriesEnabled(boolean cancelQueriesEnabled) throws SQLException {
+		isInPrep();
+		this.cancelQueriesEnabled = cancelQueriesEnabled;
+	}
+
+	/**
+	 * Set the size in bytes of the cursor window used by the query. Set to 0 (the default) to use Android's default
+	 * window size. This is only supported in Android PIE (API 28) and after and is ignored otherwise.
+	 */
+	public void setCursorWindowSize(long cursorWindowSize) throws SQLException {
+		isInPrep();
+		this.cursorWindowSize = cursorWindowSize;
+	}
+
+	/**
+	 * Set the number of milliseconds that the query is allowed to run before it is canceled and a
+	 * {@link SQLTimeoutException} is thrown. This covers the running of the query and the filling of the first cursor
+	 * window by {@link #getCursor()}. This is only supported in Android JELLY_BEAN (API 16) and after and is ignored
+	 * otherwise. Set to 0 (the default) for no timeout.
+	 */
 	@Override
 	public void setQueryTimeout(long millis) {
-		// as far as I could tell this is not supported by Android API
+		this.queryTimeoutMillis = millis;
 	}
 
 	@Override
@@ -190,11 +260,52 @@ public class AndroidCompiledStatement implements CompiledStatement {
 				} else {
 					finalSql = sql + " LIMIT " + max;
 				}
-				if (cancelQueriesEnabled) {
+				// the hook is only created if someone can use it
+				if (cancelQueriesEnabled || queryTimeoutMillis > 0) {
 					cancellationHook = apiCompatibility.createCancellationHook();
+					if (canceled && cancellationHook != null) {
+						// we were canceled before the hook was created
+						cancellationHook.cancel();
+					}
+				}
+				QueryTimeout timeout = null;
+				if (queryTimeoutMillis > 0) {
+					if (cancellationHook == null) {
+						logger.trace("{}: query timeout of {} millis not supported", this, queryTimeoutMillis);
+					} else {
+						timeout = new QueryTimeout(cancellationHook, queryTimeoutMillis);
+					}
+				}
+				try {
+					if (typedQueryArgs && args != null) {
+						cursor = apiCompatibility.rawQueryWithFactory(db, new TypedArgsCursorFactory(getArgArray()),
+								finalSql, cancellationHook);
+					} else {
+						cursor = apiCompatibility.rawQuery(db, finalSql, getStringArray(), cancellationHook);
+					}
+					if (cursorWindowSize > 0 && !apiCompatibility.setCursorWindowSize(cursor, cursorWindowSize)) {
+						logger.trace("{}: cursor window size of {} not supported", this, cursorWindowSize);
+					}
+					// the query is actually run when the first window is filled
+					cursor.moveToFirst();
+				} catch (RuntimeException e) {
+					if (timeout == null || timeout.disarm()) {
+						throw e;
+					}
+					// this is typically an OperationCanceledException
+					closeCursor();
+					throw new SQLTimeoutException(
+							"Android query timed out after " + queryTimeoutMillis + " millis: " + finalSql, e);
+				}
+				if (timeout != null && !timeout.disarm()) {
+					/*
+					 * The timer fired after the first window was filled but before we could disarm it. The cursor's
+					 * cancellation-signal has been canceled so the next window fill would throw so we can't return it.
+					 */
+					closeCursor();
+					throw new SQLTimeoutException(
+							"Android query timed out after " + queryTimeoutMillis + " millis: " + finalSql);
 				}
-				cursor = apiCompatibility.rawQuery(db, finalSql, getStringArray(), cancellationHook);
-				cursor.moveToFirst();
 				logger.trace("{}: started rawQuery cursor for: {}", this, finalSql);
 			} catch (android.database.SQLException e) {
 				throw new SQLException("Problems executing Android query: " + finalSql, e);
@@ -213,6 +324,14 @@ public class AndroidCompiledStatement implements CompiledStatement {
 	 * Execute some SQL on the database and return the number of rows changed.
 	 */
 	static int execSql(SQLiteDatabase db, String label, String finalSql, Object[] argArray) throws SQLException {
+		/*
+		 * ATTACH statements go through execSQL() because it does some special handling of write-ahead logging when it
+		 * sees them.
+		 */
+		if (Build.VERSION.SDK_INT >= 11 // Build.VERSION_CODES.HONEYCOMB
+				&& DatabaseUtils.getSqlStatementType(finalSql) != DatabaseUtils.STATEMENT_ATTACH) {
+			return execUpdateDelete(db, label, finalSql, argArray);
+		}
 		try {
 			db.execSQL(finalSql, argArray);
 		} catch (android.database.SQLException e) {
@@ -236,6 +355,53 @@ public class AndroidCompiledStatement implements CompiledStatement {
 		return result;
 	}
 
+	/**
+	 * Bind the arguments to the program using their Java types to pick the sqlite storage class.
+	 */
+	static void bindArgs(SQLiteProgram program, Object[] argArray) {
+		for (int i = 0; i < argArray.length; i++) {
+			Object arg = argArray[i];
+			if (arg == null) {
+				program.bindNull(i + 1);
+			} else if (arg instanceof String) {
+				program.bindString(i + 1, (String) arg);
+			} else if (arg instanceof byte[]) {
+				program.bindBlob(i + 1, (byte[]) arg);
+			} else if (arg instanceof Double || arg instanceof Float) {
+				program.bindDouble(i + 1, ((Number) arg).doubleValue());
+			} else if (arg instanceof Number) {
+				program.bindLong(i + 1, ((Number) arg).longValue());
+			} else if (arg instanceof Boolean) {
+				program.bindLong(i + 1, ((Boolean) arg) ? 1 : 0);
+			} else {
+				program.bindString(i + 1, arg.toString());
+			}
+		}
+	}
+
+	/**
+	 * Compile the statement once, bind the arguments, and get the number of changed rows from the same statement
+	 * instead of running a second SELECT CHANGES() query.
+	 */
+	private static int execUpdateDelete(SQLiteDatabase db, String label, String finalSql, Object[] argArray)
+			throws SQLException {
+		int result;
+		SQLiteStatement stmt = null;
+		try {
+			stmt = db.compileStatement(finalSql);
+			bindArgs(stmt, argArray);
+			result = stmt.executeUpdateDelete();
+		} catch (android.database.SQLException e) {
+			throw new SQLException("Problems executing " + label + " Android statement: " + finalSql, e);
+		} finally {
+			if (stmt != null) {
+				stmt.close();
+			}
+		}
+		logger.trace("executing statement {} changed {} rows: {}", label, result, finalSql);
+		return result;
+	}
+
 	private void isInPrep() throws SQLException {
 		if (cursor != null) {
 			throw new SQLException("Query already run. Cannot add argument values.");
@@ -259,4 +425,77 @@ public class AndroidCompiledStatement implements CompiledStatement {
 			return args.toArray(new String[args.size()]);
 		}
 	}
+
+	private void closeCursor() {
+		if (cursor != null) {
+			cursor.close();
+			cursor = null;
+		}
+	}
+
+	/**
+	 * Cancels a running query through its cancellation-hook when its deadline passes. Expiring and disarming are a
+	 * single compare-and-set of the state so either the query is canceled or the caller knows that it won't be.
+	 */
+	private static class QueryTimeout implements Runnable {
+
+		private static final int ARMED = 0;
+		private static final int DISARMED = 1;
+		private static final int EXPIRED = 2;
+
+		private final CancellationHook cancellationHook;
+		private final ScheduledFuture<?> future;
+		private final AtomicInteger state = new AtomicInteger(ARMED);
+
+		public QueryTimeout(CancellationHook cancellationHook, long timeoutMillis) {
+			this.cancellationHook = cancellationHook;
+			this.future = TimeoutExecutorHolder.executor.schedule(this, timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void run() {
+			if (state.compareAndSet(ARMED, EXPIRED)) {
+				cancellationHook.cancel();
+			}
+		}
+
+		/**
+		 * Disarm the timeout so it won't cancel the query.
+		 * 
+		 * @return True if it was disarmed or false if it had already expired and canceled the query.
+		 */
+		public boolean disarm() {
+			if (state.compareAndSet(ARMED, DISARMED)) {
+				future.cancel(false);
+				return true;
+			} else {
+				return (state.get() == DISARMED);
+			}
+		}
+	}
+
+	/**
+	 * Holds the timer thread which is shared by all of the query timeouts. It is only started the first time a query
+	 * with a timeout is run.
+	 */
+	private static class TimeoutExecutorHolder {
+
+		static final ScheduledExecutorService executor;
+
+		static {
+			ScheduledThreadPoolExecutor threadPool = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ormlite-query-timeout");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			if (Build.VERSION.SDK_INT >= 21) { // Build.VERSION_CODES.LOLLIPOP
+				// don't keep the canceled timeouts of finished queries around until their deadlines
+				threadPool.setRemoveOnCancelPolicy(true);
+			}
+			executor = threadPool;
+		}
+	}
 }
@@ -14,24 +14,42 @@ import com.j256.ormlite.support.DatabaseConnectionProxyFactory;
 
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
 
 /**
  * Android version of the connection source. Takes a standard Android {@link SQLiteOpenHelper}. For best results, use
  * {@link OrmLiteSqliteOpenHelper}. You can also construct with a {@link SQLiteDatabase}.
  * 
+ * <p>
+ * All of the DAOs share a single read-write connection. If write-ahead logging is enabled with
+ * {@link #setWriteAheadLoggingEnabled(boolean)} then Android runs the statements from other threads on its own pool of
+ * native sqlite connections so readers can keep reading while another thread is writing.
+ * </p>
+ * 
+ * <p>
+ * When the helper is closed and re-created, the connection source can be moved to the new helper with
+ * {@link #rebind(SQLiteOpenHelper)} so the DAOs that were created with it keep working.
+ * </p>
+ * 
  * @author kevingalligan, graywatson
  */
 public class AndroidConnectionSource extends BaseConnectionSource implements ConnectionSource {
 
 	private static final Logger logger = LoggerFactory.getLogger(AndroidConnectionSource.class);
 
-	private final SQLiteOpenHelper helper;
+	private volatile SQLiteOpenHelper helper;
 	private final SQLiteDatabase sqliteDatabase;
-	private DatabaseConnection connection = null;
+	private volatile DatabaseConnection connection = null;
+	private AndroidDatabaseConnection androidConnection = null;
 	private volatile boolean isOpen = true;
 	private final DatabaseType databaseType = new SqliteAndroidDatabaseType();
 	private static DatabaseConnectionProxyFactory connectionProxyFactory;
 	private boolean cancelQueriesEnabled = false;
+	private int statementCacheSize = 0;
+	private boolean typedQueryArgs = false;
+	private long cursorWindowSize = 0;
+	private boolean writeAheadLoggingEnabled = false;
+	private boolean nonExclusiveTransactions = false;
 
 	public AndroidConnectionSource(SQLiteOpenHelper helper) {
 		this.helper = helper;
@@ -60,6 +78,19 @@ public class AndroidConnectionSource extends BaseConnectionSource implements Con
 		if (conn != null) {
 			return conn;
 		}
+		conn = connection;
+		if (conn != null) {
+			logger.trace("{}: returning read-write connection {}, helper {}", this, conn, helper);
+			return conn;
+		}
+		return createReadWriteConnection();
+	}
+
+	/**
+	 * Create the connection if it hasn't been already. This is synchronized with {@link #rebind(SQLiteOpenHelper)} and
+	 * {@link #close()} so a connection to the old helper's database is never published after a rebind.
+	 */
+	private synchronized DatabaseConnection createReadWriteConnection() throws SQLException {
 		if (connection == null) {
 			SQLiteDatabase db;
 			if (sqliteDatabase == null) {
@@ -71,13 +102,12 @@ public class AndroidConnectionSource extends BaseConnectionSource implements Con
 			} else {
 				db = sqliteDatabase;
 			}
-			connection = new AndroidDatabaseConnection(db, true, cancelQueriesEnabled);
-			if (connectionProxyFactory != null) {
-				connection = connectionProxyFactory.createProxy(connection);
+			if (writeAheadLoggingEnabled) {
+				enableWriteAheadLogging(db);
 			}
+			androidConnection = createConnection(db);
+			connection = proxyConnection(androidConnection);
 			logger.trace("created connection {} for db {}, helper {}", connection, db, helper);
-		} else {
-			logger.trace("{}: returning read-write connection {}, helper {}", this, connection, helper);
 		}
 		return connection;
 	}
@@ -98,9 +128,13 @@ public class AndroidConnectionSource extends BaseConnectionSource implements Con
 	}
 
 	@Override
-	public void close() {
+	public synchronized void close() {
 		// the helper is closed so it calls close here, so this CANNOT be a call back to helper.close()
 		isOpen = false;
+		// we don't close the connection because that would close the database but we do close its statements
+		if (androidConnection != null) {
+			androidConnection.setStatementCacheSize(0);
+		}
 	}
 
 	@Override
@@ -108,6 +142,30 @@ public class AndroidConnectionSource extends BaseConnectionSource implements Con
 		close();
 	}
 
+	/**
+	 * Point the connection source at a new helper after the previous one has been closed. The DAOs that were created
+	 * with this connection source, and the foreign collections of the objects that they returned, then use the new
+	 * helper's database. The connections to the old database are dropped and the new ones are created from the new
+	 * helper when they are first needed.
+	 */
+	public synchronized void rebind(SQLiteOpenHelper newHelper) {
+		if (newHelper == null) {
+			throw new IllegalArgumentException("helper argument is null");
+		}
+		if (sqliteDatabase != null) {
+			throw new IllegalStateException("Connection source was constructed with a database and can't be rebound");
+		}
+		// the old connection's statements have usually already been closed by close()
+		if (androidConnection != null) {
+			androidConnection.setStatementCacheSize(0);
+		}
+		connection = null;
+		androidConnection = null;
+		logger.trace("{}: rebinding from helper {} to {}", this, helper, newHelper);
+		helper = newHelper;
+		isOpen = true;
+	}
+
 	@Override
 	public DatabaseType getDatabaseType() {
 		return databaseType;
@@ -146,8 +204,107 @@ public class AndroidConnectionSource extends BaseConnectionSource implements Con
 		this.cancelQueriesEnabled = cancelQueriesEnabled;
 	}
 
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Set the number of compiled insert, update, and delete statements that are cached and reused by the connection. See
+	 * {@link AndroidDatabaseConnection#setStatementCacheSize(int)}. This needs to be called before the connection is
+	 * first used. Default is 0 which disables the cache.
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public boolean isTypedQueryArgs() {
+		return typedQueryArgs;
+	}
+
+	/**
+	 * Set to true to bind numeric query arguments with their native sqlite types instead of as strings. This allows
+	 * sqlite to use integer comparisons in expressions and on columns without a type affinity and avoids creating a
+	 * String for each argument. This needs to be called before the connection is first used. Default is false.
+	 */
+	public void setTypedQueryArgs(boolean typedQueryArgs) {
+		this.typedQueryArgs = typedQueryArgs;
+	}
+
+	public long getCursorWindowSize() {
+		return cursorWindowSize;
+	}
+
+	/**
+	 * Set the size in bytes of the cursor windows used by queries. Larger windows avoid "Row too big" failures and
+	 * window refills with wide rows and smaller windows save memory with narrow rows. This is only supported in Android
+	 * PIE (API 28) and after and is ignored otherwise. This needs to be called before the connection is first used.
+	 * Default is 0 which uses Android's default window size.
+	 */
+	public void setCursorWindowSize(long cursorWindowSize) {
+		this.cursorWindowSize = cursorWindowSize;
+	}
+
+	public boolean isWriteAheadLoggingEnabled() {
+		return writeAheadLoggingEnabled;
+	}
+
+	/**
+	 * Set to true to call {@link SQLiteDatabase#enableWriteAheadLogging()} on the database so Android runs queries from
+	 * other threads on its own read connections and readers don't serialize behind a writer. Requires HONEYCOMB (API
+	 * 11) or later. This needs to be called before the connection is first used. Default is false.
+	 */
+	public void setWriteAheadLoggingEnabled(boolean writeAheadLoggingEnabled) {
+		this.writeAheadLoggingEnabled = writeAheadLoggingEnabled;
+	}
+
+	public boolean isNonExclusiveTransactions() {
+		return nonExclusiveTransactions;
+	}
+
+	/**
+	 * Set to true to start transactions in IMMEDIATE mode with {@link SQLiteDatabase#beginTransactionNonExclusive()}
+	 * instead of EXCLUSIVE mode so that readers aren't blocked by our write transactions when write-ahead logging is
+	 * enabled. Requires HONEYCOMB (API 11) or later. This needs to be called before the connection is first used.
+	 * Default is false.
+	 */
+	public void setNonExclusiveTransactions(boolean nonExclusiveTransactions) {
+		this.nonExclusiveTransactions = nonExclusiveTransactions;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName() + "@" + Integer.toHexString(super.hashCode());
 	}
+
+	private AndroidDatabaseConnection createConnection(SQLiteDatabase db) {
+		AndroidDatabaseConnection conn = new AndroidDatabaseConnection(db, true, cancelQueriesEnabled);
+		conn.setStatementCacheSize(statementCacheSize);
+		conn.setTypedQueryArgs(typedQueryArgs);
+		conn.setCursorWindowSize(cursorWindowSize);
+		conn.setNonExclusiveTransactions(nonExclusiveTransactions);
+		return conn;
+	}
+
+	private DatabaseConnection proxyConnection(DatabaseConnection conn) throws SQLException {
+		if (connectionProxyFactory == null) {
+			return conn;
+		} else {
+			return connectionProxyFactory.createProxy(conn);
+		}
+	}
+
+	private void enableWriteAheadLogging(SQLiteDatabase db) {
+		if (Build.VERSION.SDK_INT < 11) { // Build.VERSION_CODES.HONEYCOMB
+			logger.warn("write-ahead logging is not supported by this version of Android");
+			return;
+		}
+		try {
+			if (!db.enableWriteAheadLogging()) {
+				// in-memory databases can't use it
+				logger.warn("write-ahead logging could not be enabled for db {}", db);
+			}
+		} catch (IllegalStateException e) {
+			logger.warn(e, "write-ahead logging could not be enabled for db {}", db);
+		}
+	}
 }
@@ -1,10 +1,19 @@
 package com.j256.ormlite.android;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.j256.ormlite.dao.ObjectCache;
+import com.j256.ormlite.db.SqliteAndroidDatabaseType;
 import com.j256.ormlite.field.FieldType;
 import com.j256.ormlite.field.SqlType;
 import com.j256.ormlite.logger.Logger;
@@ -30,10 +39,18 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 
 	private static Logger logger = LoggerFactory.getLogger(AndroidDatabaseConnection.class);
 	private static final String[] NO_STRING_ARGS = new String[0];
+	private static final int DEFAULT_BATCH_ROW_ID_SIZE = 64;
+	private static final SqliteAndroidDatabaseType databaseType = new SqliteAndroidDatabaseType();
+	private static final String SAVE_POINT_PREFIX = "ORMLITE_SP";
+	private static final AtomicInteger savePointCounter = new AtomicInteger();
 
 	private final SQLiteDatabase db;
 	private final boolean readWrite;
 	private final boolean cancelQueriesEnabled;
+	private volatile StatementCache statementCache;
+	private boolean typedQueryArgs;
+	private long cursorWindowSize;
+	private boolean nonExclusiveTransactions;
 
 	public AndroidDatabaseConnection(SQLiteDatabase db, boolean readWrite) {
 		this(db, readWrite, false);
@@ -76,17 +93,30 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 			}
 		} else {
 			if (!db.inTransaction()) {
-				db.beginTransaction();
+				beginTransaction();
 			}
 		}
 	}
 
+	/**
+	 * If we are already in a transaction then this sets a real sqlite SAVEPOINT which can be rolled back without
+	 * affecting the outer transaction. Otherwise this begins a new transaction.
+	 */
 	@Override
 	public Savepoint setSavePoint(String name) throws SQLException {
+		if (name == null) {
+			name = SAVE_POINT_PREFIX + savePointCounter.incrementAndGet();
+		}
 		try {
-			db.beginTransaction();
-			logger.trace("{}: save-point set with name {}", this, name);
-			return new OurSavePoint(name);
+			if (db.inTransaction()) {
+				execSavePointSql("SAVEPOINT ", name);
+				logger.trace("{}: nested save-point set with name {}", this, name);
+				return new OurSavePoint(name, true);
+			} else {
+				beginTransaction();
+				logger.trace("{}: save-point set with name {}", this, name);
+				return new OurSavePoint(name, false);
+			}
 		} catch (android.database.SQLException e) {
 			throw new SQLException("problems beginning transaction " + name, e);
 		}
@@ -99,8 +129,80 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		return readWrite;
 	}
 
+	/**
+	 * Set to true to start transactions in IMMEDIATE mode with {@link SQLiteDatabase#beginTransactionNonExclusive()}
+	 * instead of EXCLUSIVE mode. With write-ahead logging enabled this means that readers on other connections are not
+	 * blocked by our write transactions. Requires HONEYCOMB (API 11) or later and is ignored otherwise. Default is
+	 * false.
+	 */
+	public void setNonExclusiveTransactions(boolean nonExclusiveTransactions) {
+		this.nonExclusiveTransactions = nonExclusiveTransactions;
+	}
+
+	/**
+	 * Set the maximum number of compiled statements that are cached by this connection and reused by the insert, update,
+	 * delete, and simple query-for-long methods. The least recently used statement is closed when the cache overflows.
+	 * Set to 0 (the default) to disable the cache. Any previously cached statements are closed.
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		StatementCache oldCache = statementCache;
+		if (statementCacheSize > 0) {
+			statementCache = new StatementCache(statementCacheSize);
+		} else {
+			statementCache = null;
+		}
+		if (oldCache != null) {
+			oldCache.closeAll();
+		}
+	}
+
+	/**
+	 * Set to true to have compiled statements bind numeric query arguments as sqlite integers and reals instead of as
+	 * strings. See {@link AndroidCompiledStatement#AndroidCompiledStatement(String, SQLiteDatabase, StatementType,
+	 * boolean, boolean, boolean)}.
+	 */
+	public void setTypedQueryArgs(boolean typedQueryArgs) {
+		this.typedQueryArgs = typedQueryArgs;
+	}
+
+	/**
+	 * Set the size in bytes of the cursor windows used by compiled statements. See
+	 * {@link AndroidCompiledStatement#setCursorWindowSize(long)}.
+	 */
+	public void setCursorWindowSize(long cursorWindowSize) {
+		this.cursorWindowSize = cursorWindowSize;
+	}
+
+	/**
+	 * Return the number of times a compiled statement was found in the statement cache.
+	 */
+	public long getStatementCacheHitCount() {
+		StatementCache cache = statementCache;
+		if (cache == null) {
+			return 0;
+		} else {
+			return cache.getHitCount();
+		}
+	}
+
+	/**
+	 * Return the number of times a statement had to be compiled because it was not in the statement cache.
+	 */
+	public long getStatementCacheMissCount() {
+		StatementCache cache = statementCache;
+		if (cache == null) {
+			return 0;
+		} else {
+			return cache.getMissCount();
+		}
+	}
+
 	@Override
 	public void commit(Savepoint savepoint) throws SQLException {
+		if (isNestedSavePoint(savepoint)) {
+			releaseNestedSavePoint(savepoint);
+			return;
+		}
 		try {
 			db.setTransactionSuccessful();
 			db.endTransaction();
@@ -120,6 +222,22 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 
 	@Override
 	public void rollback(Savepoint savepoint) throws SQLException {
+		if (isNestedSavePoint(savepoint)) {
+			String name = savepoint.getSavepointName();
+			try {
+				/*
+				 * The leading semi-colon stops Android from thinking that this is a rollback of the whole transaction.
+				 * See DatabaseUtils.getSqlStatementType(String).
+				 */
+				execSavePointSql(";ROLLBACK TO ", name);
+				// rolling back to a save-point leaves it on the stack so we have to release it as well
+				execSavePointSql("RELEASE ", name);
+				logger.trace("{}: rolled back to nested save-point {}", this, name);
+			} catch (android.database.SQLException e) {
+				throw new SQLException("problems rolling back to save-point " + name, e);
+			}
+			return;
+		}
 		try {
 			// no setTransactionSuccessful() means it is a rollback
 			db.endTransaction();
@@ -138,8 +256,10 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 	}
 
 	@Override
-	public void releaseSavePoint(Savepoint savePoint) {
-		// noop
+	public void releaseSavePoint(Savepoint savePoint) throws SQLException {
+		if (isNestedSavePoint(savePoint)) {
+			releaseNestedSavePoint(savePoint);
+		}
 	}
 
 	@Override
@@ -149,9 +269,13 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 
 	@Override
 	public CompiledStatement compileStatement(String statement, StatementType type, FieldType[] argFieldTypes,
-			int resultFlags, boolean cacheStore) {
+			int resultFlags, boolean cacheStore) throws SQLException {
 		// resultFlags argument is not used in Android-land since the {@link Cursor} is bi-directional.
-		CompiledStatement stmt = new AndroidCompiledStatement(statement, db, type, cancelQueriesEnabled, cacheStore);
+		AndroidCompiledStatement stmt =
+				new AndroidCompiledStatement(statement, db, type, cancelQueriesEnabled, cacheStore, typedQueryArgs);
+		if (cursorWindowSize > 0) {
+			stmt.setCursorWindowSize(cursorWindowSize);
+		}
 		logger.trace("{}: compiled statement got {}: {}", this, stmt, statement);
 		return stmt;
 	}
@@ -161,7 +285,7 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 			throws SQLException {
 		SQLiteStatement stmt = null;
 		try {
-			stmt = db.compileStatement(statement);
+			stmt = acquireStatement(statement);
 			bindArgs(stmt, args, argFieldTypes);
 			long rowId = stmt.executeInsert();
 			if (keyHolder != null) {
@@ -177,8 +301,270 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		} catch (android.database.SQLException e) {
 			throw new SQLException("inserting to database failed: " + statement, e);
 		} finally {
-			closeQuietly(stmt);
+			releaseStatement(statement, stmt);
+		}
+	}
+
+	/**
+	 * Insert a number of rows with the same insert statement. The statement is compiled once and then each row's
+	 * arguments are bound and executed inside of a single transaction. If any of the inserts fail then the transaction
+	 * is rolled back.
+	 * 
+	 * @param statement
+	 *            Insert SQL statement with ? argument place-holders.
+	 * @param rows
+	 *            Arguments for each of the rows to be inserted.
+	 * @param argFieldTypes
+	 *            Field types of the arguments which are the same for each row.
+	 * @param keyHolder
+	 *            If not null then each of the generated row-ids will be added to it. It must be able to handle more than
+	 *            one key.
+	 * @return The generated row-ids of the inserted rows in order.
+	 */
+	public long[] insertBatch(String statement, Iterable<Object[]> rows, FieldType[] argFieldTypes,
+			GeneratedKeyHolder keyHolder) throws SQLException {
+		long[] rowIds;
+		if (rows instanceof Collection) {
+			rowIds = new long[((Collection<Object[]>) rows).size()];
+		} else {
+			rowIds = new long[DEFAULT_BATCH_ROW_ID_SIZE];
+		}
+		int rowCount = 0;
+		SQLiteStatement stmt = null;
+		boolean inTransaction = false;
+		try {
+			stmt = acquireStatement(statement);
+			beginTransaction();
+			inTransaction = true;
+			for (Object[] args : rows) {
+				bindArgs(stmt, args, argFieldTypes);
+				long rowId = stmt.executeInsert();
+				stmt.clearBindings();
+				if (rowCount == rowIds.length) {
+					rowIds = Arrays.copyOf(rowIds, Math.max(DEFAULT_BATCH_ROW_ID_SIZE, rowCount * 2));
+				}
+				rowIds[rowCount++] = rowId;
+				if (keyHolder != null) {
+					keyHolder.addKey(rowId);
+				}
+			}
+			db.setTransactionSuccessful();
+		} catch (android.database.SQLException e) {
+			throw new SQLException("batch inserting to database failed after " + rowCount + " rows: " + statement, e);
+		} finally {
+			if (inTransaction) {
+				db.endTransaction();
+			}
+			releaseStatement(statement, stmt);
+		}
+		logger.trace("{}: batch insert statement is compiled and executed, inserted {}: {}", this, rowCount, statement);
+		if (rowCount == rowIds.length) {
+			return rowIds;
+		} else {
+			return Arrays.copyOf(rowIds, rowCount);
+		}
+	}
+
+	/**
+	 * Insert a number of rows by folding them into multi-row INSERT INTO table (...) VALUES (...),(...),... statements.
+	 * The rows are split into the largest chunks that fit under sqlite's host parameter limit (see
+	 * {@link SqliteAndroidDatabaseType#getMultiRowInsertChunkSize(int)}) and all of the statements are run inside of a
+	 * single transaction. This is often much faster than inserting one row at a time for narrow tables but the
+	 * generated ids of the rows are not returned. If the database does not support multi-row inserts then this falls
+	 * back to {@link #insertBatch(String, Iterable, FieldType[], GeneratedKeyHolder)}.
+	 * 
+	 * @param tableName
+	 *            Name of the table we are inserting into.
+	 * @param columnNames
+	 *            Names of the columns that each row sets.
+	 * @param rows
+	 *            Arguments for each of the rows which must be the same length as the column-names.
+	 * @param argFieldTypes
+	 *            Field types of the columns.
+	 * @return The number of rows inserted.
+	 */
+	public int insertMultiRow(String tableName, String[] columnNames, List<Object[]> rows, FieldType[] argFieldTypes)
+			throws SQLException {
+		if (rows.isEmpty()) {
+			return 0;
+		}
+		int maxHostParameters = databaseType.getMaxHostParameters();
+		if (columnNames.length > maxHostParameters) {
+			throw new SQLException("Cannot insert into table " + tableName + " with " + columnNames.length
+					+ " columns because sqlite only allows " + maxHostParameters + " arguments per statement");
+		}
+		if (!databaseType.isMultiRowInsertSupported()) {
+			insertBatch(buildMultiRowInsert(tableName, columnNames, 1), rows, argFieldTypes, null);
+			return rows.size();
+		}
+		int chunkSize = databaseType.getMultiRowInsertChunkSize(columnNames.length);
+		String chunkStatement = null;
+		int rowCount = 0;
+		boolean inTransaction = false;
+		try {
+			beginTransaction();
+			inTransaction = true;
+			while (rowCount < rows.size()) {
+				int numRows = Math.min(chunkSize, rows.size() - rowCount);
+				String statement;
+				// all of the full chunks share the same statement but the tail is a one-off so we don't let it push
+				// other statements out of the cache
+				boolean fullChunk = (numRows == chunkSize);
+				if (fullChunk) {
+					if (chunkStatement == null) {
+						chunkStatement = buildMultiRowInsert(tableName, columnNames, chunkSize);
+					}
+					statement = chunkStatement;
+				} else {
+					statement = buildMultiRowInsert(tableName, columnNames, numRows);
+				}
+				SQLiteStatement stmt = null;
+				try {
+					if (fullChunk) {
+						stmt = acquireStatement(statement);
+					} else {
+						stmt = db.compileStatement(statement);
+					}
+					for (int i = 0; i < numRows; i++) {
+						bindArgs(stmt, i * columnNames.length, rows.get(rowCount + i), argFieldTypes);
+					}
+					stmt.executeInsert();
+					stmt.clearBindings();
+				} finally {
+					if (fullChunk) {
+						releaseStatement(statement, stmt);
+					} else {
+						closeQuietly(stmt);
+					}
+				}
+				rowCount += numRows;
+			}
+			db.setTransactionSuccessful();
+		} catch (android.database.SQLException e) {
+			throw new SQLException(
+					"multi-row inserting to table " + tableName + " failed after " + rowCount + " rows", e);
+		} finally {
+			if (inTransaction) {
+				db.endTransaction();
+			}
+		}
+		logger.trace("{}: multi-row insert into {} inserted {} rows in chunks of {}", this, tableName, rowCount,
+				chunkSize);
+		return rowCount;
+	}
+
+	/**
+	 * Open a stream which reads a blob column of a row in chunks so the whole blob doesn't have to fit into a cursor
+	 * window or be in memory at once. This works for BYTE_ARRAY and SERIALIZABLE fields.
+	 * 
+	 * @param tableName
+	 *            Name of the table that holds the row.
+	 * @param columnName
+	 *            Name of the blob column.
+	 * @param rowId
+	 *            Rowid of the row which is the same as the id if the id column is an INTEGER PRIMARY KEY such as with
+	 *            generatedId fields.
+	 * @param chunkSize
+	 *            Number of bytes that are read from the database at a time.
+	 */
+	public InputStream openBlobStream(String tableName, String columnName, long rowId, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Blob chunk size must be positive: " + chunkSize);
 		}
+		StringBuilder sb = new StringBuilder(64);
+		sb.append("SELECT SUBSTR(");
+		databaseType.appendEscapedEntityName(sb, columnName);
+		sb.append(", ?, ?) FROM ");
+		databaseType.appendEscapedEntityName(sb, tableName);
+		sb.append(" WHERE ROWID = ?");
+		return new BlobInputStream(db, sb.toString(), rowId, chunkSize);
+	}
+
+	/**
+	 * Write the bytes from the stream into a blob column of an existing row in chunks. The column is emptied and then
+	 * each chunk is appended to it inside of a single transaction so only one chunk is in memory at a time. This works
+	 * for BYTE_ARRAY and SERIALIZABLE fields and the blob can then be read back with
+	 * {@link #openBlobStream(String, String, long, int)}. The input stream is not closed.
+	 * 
+	 * <p>
+	 * <b>NOTE:</b> Each append makes sqlite read and re-write the whole blob so far, so writing a blob of n bytes copies
+	 * about n^2 / (2 * chunkSize) bytes inside the database. Android doesn't expose sqlite's incremental blob I/O and
+	 * writing into a zeroblob() with substr() splicing re-writes the whole blob per chunk just the same. This trades the
+	 * time of the copying for memory: use a chunk size that is as large as you can afford to hold in memory, and for
+	 * blobs that do fit in memory a plain update of the field is faster.
+	 * </p>
+	 * 
+	 * @param tableName
+	 *            Name of the table that holds the row.
+	 * @param columnName
+	 *            Name of the blob column.
+	 * @param rowId
+	 *            Rowid of the row which is the same as the id if the id column is an INTEGER PRIMARY KEY such as with
+	 *            generatedId fields.
+	 * @param inputStream
+	 *            Stream whose bytes are written to the column.
+	 * @param chunkSize
+	 *            Number of bytes that are appended to the blob at a time. The number of appends, and so the number of
+	 *            times the blob is re-written, is the length of the blob divided by this. See the note above.
+	 * @return The number of bytes written.
+	 */
+	public long writeBlobStream(String tableName, String columnName, long rowId, InputStream inputStream,
+			int chunkSize) throws SQLException {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Blob chunk size must be positive: " + chunkSize);
+		}
+		StringBuilder sb = new StringBuilder(64);
+		sb.append("UPDATE ");
+		databaseType.appendEscapedEntityName(sb, tableName);
+		sb.append(" SET ");
+		databaseType.appendEscapedEntityName(sb, columnName);
+		int columnEnd = sb.length();
+		sb.append(" = X'' WHERE ROWID = ?");
+		String clearStatement = sb.toString();
+		sb.setLength(columnEnd);
+		// || works on text so we have to cast the result back to a blob
+		sb.append(" = CAST(");
+		databaseType.appendEscapedEntityName(sb, columnName);
+		sb.append(" || ? AS BLOB) WHERE ROWID = ?");
+		String appendStatement = sb.toString();
+
+		byte[] buffer = new byte[chunkSize];
+		long numBytes = 0;
+		boolean inTransaction = false;
+		try {
+			beginTransaction();
+			inTransaction = true;
+			if (executeBlobUpdate(clearStatement, null, rowId) != 1) {
+				throw new SQLException("Could not find row with rowid " + rowId + " in table " + tableName);
+			}
+			while (true) {
+				int chunkLength = readChunk(inputStream, buffer);
+				if (chunkLength == 0) {
+					break;
+				}
+				byte[] chunk;
+				if (chunkLength == buffer.length) {
+					chunk = buffer;
+				} else {
+					chunk = Arrays.copyOf(buffer, chunkLength);
+				}
+				executeBlobUpdate(appendStatement, chunk, rowId);
+				numBytes += chunkLength;
+			}
+			db.setTransactionSuccessful();
+		} catch (IOException e) {
+			throw new SQLException("Reading blob for table " + tableName + " failed after " + numBytes + " bytes", e);
+		} catch (android.database.SQLException e) {
+			throw new SQLException(
+					"Writing blob to table " + tableName + " failed after " + numBytes + " bytes: " + appendStatement,
+					e);
+		} finally {
+			if (inTransaction) {
+				db.endTransaction();
+			}
+		}
+		logger.trace("{}: wrote {} blob bytes to {} rowid {}", this, numBytes, tableName, rowId);
+		return numBytes;
 	}
 
 	@Override
@@ -197,8 +583,8 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		Cursor cursor = null;
 		AndroidDatabaseResults results = null;
 		try {
-			cursor = db.rawQuery(statement, toStrings(args));
-			results = new AndroidDatabaseResults(cursor, objectCache, true);
+			cursor = rawQuery(statement, args);
+			results = new AndroidDatabaseResults(cursor, objectCache, true, statement);
 			logger.trace("{}: queried for one result: {}", this, statement);
 			if (!results.first()) {
 				return null;
@@ -222,14 +608,14 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 	public long queryForLong(String statement) throws SQLException {
 		SQLiteStatement stmt = null;
 		try {
-			stmt = db.compileStatement(statement);
+			stmt = acquireStatement(statement);
 			long result = stmt.simpleQueryForLong();
 			logger.trace("{}: query for long simple query returned {}: {}", this, result, statement);
 			return result;
 		} catch (android.database.SQLException e) {
 			throw new SQLException("queryForLong from database failed: " + statement, e);
 		} finally {
-			closeQuietly(stmt);
+			releaseStatement(statement, stmt);
 		}
 	}
 
@@ -238,8 +624,8 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		Cursor cursor = null;
 		AndroidDatabaseResults results = null;
 		try {
-			cursor = db.rawQuery(statement, toStrings(args));
-			results = new AndroidDatabaseResults(cursor, null, false);
+			cursor = rawQuery(statement, args);
+			results = new AndroidDatabaseResults(cursor, null, false, statement);
 			long result;
 			if (results.first()) {
 				result = results.getLong(0);
@@ -258,6 +644,10 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 
 	@Override
 	public void close() throws Exception {
+		StatementCache cache = statementCache;
+		if (cache != null) {
+			cache.closeAll();
+		}
 		try {
 			db.close();
 			logger.trace("{}: db {} closed", this, db);
@@ -315,7 +705,7 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		int result = -1;
 		SQLiteStatement stmt = null;
 		try {
-			stmt = db.compileStatement(statement);
+			stmt = acquireStatement(statement);
 			bindArgs(stmt, args, argFieldTypes);
 			if (Build.VERSION.SDK_INT >= 11) { // Build.VERSION_CODES.HONEYCOMB
 				result = stmt.executeUpdateDelete();
@@ -325,7 +715,7 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		} catch (android.database.SQLException e) {
 			throw new SQLException("updating database failed: " + statement, e);
 		} finally {
-			closeQuietly(stmt);
+			releaseStatement(statement, stmt);
 		}
 		if (result < 0) {
 			result = selectNumChanges(label);
@@ -334,6 +724,53 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		return result;
 	}
 
+	/**
+	 * Run an update of a blob column with an optional blob argument followed by the rowid argument.
+	 * 
+	 * @return The number of rows changed.
+	 */
+	private int executeBlobUpdate(String statement, byte[] bytes, long rowId) {
+		SQLiteStatement stmt = null;
+		int result = -1;
+		try {
+			stmt = acquireStatement(statement);
+			int index = 1;
+			if (bytes != null) {
+				stmt.bindBlob(index++, bytes);
+			}
+			stmt.bindLong(index, rowId);
+			if (Build.VERSION.SDK_INT >= 11) { // Build.VERSION_CODES.HONEYCOMB
+				result = stmt.executeUpdateDelete();
+			} else {
+				stmt.execute();
+			}
+			stmt.clearBindings();
+		} finally {
+			releaseStatement(statement, stmt);
+		}
+		if (result < 0) {
+			result = selectNumChanges("blob");
+		}
+		return result;
+	}
+
+	/**
+	 * Fill the buffer from the stream unless we reach the end of it.
+	 * 
+	 * @return The number of bytes read which is only less than the buffer size at the end of the stream.
+	 */
+	private static int readChunk(InputStream inputStream, byte[] buffer) throws IOException {
+		int length = 0;
+		while (length < buffer.length) {
+			int numRead = inputStream.read(buffer, length, buffer.length - length);
+			if (numRead < 0) {
+				break;
+			}
+			length += numRead;
+		}
+		return length;
+	}
+
 	/**
 	 * Return the number of changes from the previous statement. This is needed because the executeUpdateDelete() method
 	 * was not introduced until HONEYCOMB. This needs to be in the same connection as the previous statement. Thanks
@@ -353,36 +790,101 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		}
 	}
 
+	/**
+	 * Get a compiled statement for the SQL either from our cache or by compiling it. The statement must be handed back
+	 * with {@link #releaseStatement(String, SQLiteStatement)}.
+	 */
+	private SQLiteStatement acquireStatement(String statement) {
+		StatementCache cache = statementCache;
+		if (cache != null) {
+			SQLiteStatement stmt = cache.checkOut(statement);
+			if (stmt != null) {
+				return stmt;
+			}
+		}
+		return db.compileStatement(statement);
+	}
+
+	/**
+	 * Return the statement to the cache or close it if it is not being cached.
+	 */
+	private void releaseStatement(String statement, SQLiteStatement stmt) {
+		if (stmt == null) {
+			return;
+		}
+		StatementCache cache = statementCache;
+		if (cache == null || !cache.checkIn(statement, stmt)) {
+			closeQuietly(stmt);
+		}
+	}
+
+	private String buildMultiRowInsert(String tableName, String[] columnNames, int numRows) {
+		StringBuilder sb = new StringBuilder(64 + numRows * (columnNames.length * 2 + 3));
+		sb.append("INSERT INTO ");
+		databaseType.appendEscapedEntityName(sb, tableName);
+		sb.append(" (");
+		for (int i = 0; i < columnNames.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			databaseType.appendEscapedEntityName(sb, columnNames[i]);
+		}
+		sb.append(") VALUES ");
+		for (int rowC = 0; rowC < numRows; rowC++) {
+			if (rowC > 0) {
+				sb.append(',');
+			}
+			sb.append('(');
+			for (int i = 0; i < columnNames.length; i++) {
+				if (i > 0) {
+					sb.append(',');
+				}
+				sb.append('?');
+			}
+			sb.append(')');
+		}
+		return sb.toString();
+	}
+
 	private void bindArgs(SQLiteStatement stmt, Object[] args, FieldType[] argFieldTypes) throws SQLException {
+		bindArgs(stmt, 0, args, argFieldTypes);
+	}
+
+	/**
+	 * Bind the arguments to the statement starting after a certain number of arguments that have already been bound.
+	 */
+	private void bindArgs(SQLiteStatement stmt, int offset, Object[] args, FieldType[] argFieldTypes)
+			throws SQLException {
 		if (args == null) {
 			return;
 		}
 		for (int i = 0; i < args.length; i++) {
 			Object arg = args[i];
+			int index = offset + i + 1;
 			if (arg == null) {
-				stmt.bindNull(i + 1);
+				stmt.bindNull(index);
 			} else {
 				SqlType sqlType = argFieldTypes[i].getSqlType();
 				switch (sqlType) {
 					case STRING:
 					case LONG_STRING:
 					case CHAR:
-						stmt.bindString(i + 1, arg.toString());
+						stmt.bindString(index, arg.toString());
 						break;
 					case BOOLEAN:
 					case BYTE:
 					case SHORT:
 					case INTEGER:
 					case LONG:
-						stmt.bindLong(i + 1, ((Number) arg).longValue());
+						stmt.bindLong(index, ((Number) arg).longValue());
 						break;
 					case FLOAT:
 					case DOUBLE:
-						stmt.bindDouble(i + 1, ((Number) arg).doubleValue());
+						stmt.bindDouble(index, ((Number) arg).doubleValue());
 						break;
 					case BYTE_ARRAY:
 					case SERIALIZABLE:
-						stmt.bindBlob(i + 1, (byte[]) arg);
+						stmt.bindBlob(index, (byte[]) arg);
 						break;
 					case DATE:
 						// this is mapped to a STRING under Android
@@ -399,6 +901,14 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		}
 	}
 
+	private Cursor rawQuery(String statement, Object[] args) {
+		if (typedQueryArgs && args != null && args.length > 0) {
+			return db.rawQueryWithFactory(new TypedArgsCursorFactory(args), statement, null, null);
+		} else {
+			return db.rawQuery(statement, toStrings(args));
+		}
+	}
+
 	private String[] toStrings(Object[] args) {
 		if (args == null || args.length == 0) {
 			return null;
@@ -434,12 +944,111 @@ public class AndroidDatabaseConnection implements DatabaseConnection {
 		}
 	}
 
+	/**
+	 * LRU cache of compiled statements keyed by their SQL. Statements are removed from the cache while they are being
+	 * used so two threads never bind arguments to the same statement at the same time.
+	 */
+	private static class StatementCache {
+
+		private final Map<String, SQLiteStatement> statementMap;
+		private long hitCount;
+		private long missCount;
+		private boolean closed;
+
+		public StatementCache(final int maxSize) {
+			this.statementMap = new LinkedHashMap<String, SQLiteStatement>(16, 0.75F, true) {
+				private static final long serialVersionUID = -6367183290484834796L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+					if (size() <= maxSize) {
+						return false;
+					}
+					eldest.getValue().close();
+					return true;
+				}
+			};
+		}
+
+		/**
+		 * Remove and return the statement for the SQL or null if none.
+		 */
+		public synchronized SQLiteStatement checkOut(String sql) {
+			SQLiteStatement stmt = statementMap.remove(sql);
+			if (stmt == null) {
+				missCount++;
+			} else {
+				hitCount++;
+			}
+			return stmt;
+		}
+
+		/**
+		 * Put the statement back in the cache. Returns false if it was not cached and should be closed by the caller.
+		 */
+		public synchronized boolean checkIn(String sql, SQLiteStatement stmt) {
+			if (closed || statementMap.containsKey(sql)) {
+				return false;
+			}
+			stmt.clearBindings();
+			statementMap.put(sql, stmt);
+			return true;
+		}
+
+		public synchronized void closeAll() {
+			for (SQLiteStatement stmt : statementMap.values()) {
+				stmt.close();
+			}
+			statementMap.clear();
+			closed = true;
+		}
+
+		public synchronized long getHitCount() {
+			return hitCount;
+		}
+
+		public synchronized long getMissCount() {
+			return missCount;
+		}
+	}
+
+	private void beginTransaction() {
+		if (nonExclusiveTransactions && Build.VERSION.SDK_INT >= 11) { // Build.VERSION_CODES.HONEYCOMB
+			db.beginTransactionNonExclusive();
+		} else {
+			db.beginTransaction();
+		}
+	}
+
+	private boolean isNestedSavePoint(Savepoint savepoint) {
+		return (savepoint instanceof OurSavePoint && ((OurSavePoint) savepoint).nested);
+	}
+
+	private void releaseNestedSavePoint(Savepoint savepoint) throws SQLException {
+		String name = savepoint.getSavepointName();
+		try {
+			execSavePointSql("RELEASE ", name);
+			logger.trace("{}: nested save-point {} is released", this, name);
+		} catch (android.database.SQLException e) {
+			throw new SQLException("problems releasing save-point " + name, e);
+		}
+	}
+
+	private void execSavePointSql(String prefix, String name) {
+		StringBuilder sb = new StringBuilder(prefix.length() + name.length() + 2);
+		sb.append(prefix);
+		databaseType.appendEscapedEntityName(sb, name);
+		db.execSQL(sb.toString());
+	}
+
 	private static class OurSavePoint implements Savepoint {
 
-		private String name;
+		private final String name;
+		private final boolean nested;
 
-		public OurSavePoint(String name) {
+		public OurSavePoint(String name, boolean nested) {
 			this.name = name;
+			this.nested = nested;
 		}
 
 		@Override
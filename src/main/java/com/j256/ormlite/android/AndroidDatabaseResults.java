@@ -6,12 +6,8 @@ import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 import com.j256.ormlite.dao.ObjectCache;
-import com.j256.ormlite.db.DatabaseType;
-import com.j256.ormlite.db.SqliteAndroidDatabaseType;
 import com.j256.ormlite.support.DatabaseResults;
 
 import android.database.Cursor;
@@ -23,27 +19,23 @@ import android.database.Cursor;
  */
 public class AndroidDatabaseResults implements DatabaseResults {
 
-	private static final int MIN_NUM_COLUMN_NAMES_MAP = 8;
-
 	private final Cursor cursor;
-	private final String[] columnNames;
-	private final Map<String, Integer> columnNameMap;
+	private final ColumnNameIndex columnNameIndex;
 	private final ObjectCache objectCache;
 	private final boolean cacheStore;
-	private static final DatabaseType databaseType = new SqliteAndroidDatabaseType();
 
 	public AndroidDatabaseResults(Cursor cursor, ObjectCache objectCache, boolean cacheStore) {
+		this(cursor, objectCache, cacheStore, null);
+	}
+
+	/**
+	 * @param sql
+	 *            The SQL statement that generated the cursor. This is used to share the column-name lookup tables
+	 *            between results from the same query. Can be null if not known.
+	 */
+	public AndroidDatabaseResults(Cursor cursor, ObjectCache objectCache, boolean cacheStore, String sql) {
 		this.cursor = cursor;
-		this.columnNames = cursor.getColumnNames();
-		if (this.columnNames.length >= MIN_NUM_COLUMN_NAMES_MAP) {
-			this.columnNameMap = new HashMap<String, Integer>();
-			for (int i = 0; i < this.columnNames.length; i++) {
-				// NOTE: this is case sensitive
-				this.columnNameMap.put(this.columnNames[i], i);
-			}
-		} else {
-			columnNameMap = null;
-		}
+		this.columnNameIndex = ColumnNameIndex.forColumns(sql, cursor.getColumnNames());
 		this.objectCache = objectCache;
 		this.cacheStore = cacheStore;
 	}
@@ -109,19 +101,8 @@ public class AndroidDatabaseResults implements DatabaseResults {
 
 	@Override
 	public int findColumn(String columnName) throws SQLException {
-		int index = lookupColumn(columnName);
-		if (index >= 0) {
-			return index;
-		}
-
-		/*
-		 * Hack here. It turns out that if we've asked for '*' then the field foo is in the cursor as foo. But if we ask
-		 * for a particular field list with DISTINCT, which escapes the field names, they are in the cursor _with_ the
-		 * escaping. Ugly!!
-		 */
-		StringBuilder sb = new StringBuilder(columnName.length() + 4);
-		databaseType.appendEscapedEntityName(sb, columnName);
-		index = lookupColumn(sb.toString());
+		// this also handles the escaped column names that show up in the cursor with DISTINCT queries
+		int index = columnNameIndex.findColumn(columnName);
 		if (index >= 0) {
 			return index;
 		} else {
@@ -197,6 +178,11 @@ public class AndroidDatabaseResults implements DatabaseResults {
 		throw new SQLException("Android does not support timestamp.  Use JAVA_DATE_LONG or JAVA_DATE_STRING types");
 	}
 
+	/**
+	 * Returns a stream over the blob in the column. The blob is read from the cursor window so it has to fit inside of
+	 * it. Larger blobs can be streamed in chunks with
+	 * {@link AndroidDatabaseConnection#openBlobStream(String, String, long, int)}.
+	 */
 	@Override
 	public InputStream getBlobStream(int columnIndex) {
 		return new ByteArrayInputStream(cursor.getBlob(columnIndex));
@@ -242,6 +228,15 @@ public class AndroidDatabaseResults implements DatabaseResults {
 		close();
 	}
 
+	/**
+	 * Returns an object which identifies the column layout of these results. Results with the same column names, such
+	 * as those from the same query, return the same object so row mappers can look up their column indexes once and
+	 * reuse them for every row with the same layout.
+	 */
+	public Object getColumnLayout() {
+		return columnNameIndex;
+	}
+
 	/***
 	 * Returns the underlying Android cursor object. This should not be used unless you know what you are doing.
 	 */
@@ -253,25 +248,4 @@ public class AndroidDatabaseResults implements DatabaseResults {
 	public String toString() {
 		return getClass().getSimpleName() + "@" + Integer.toHexString(super.hashCode());
 	}
-
-	private int lookupColumn(String columnName) {
-		// we either use linear search or our name map
-		if (columnNameMap == null) {
-			for (int i = 0; i < columnNames.length; i++) {
-				// NOTE: this is case sensitive
-				if (columnNames[i].equals(columnName)) {
-					return i;
-				}
-			}
-			return -1;
-		} else {
-			// NOTE: this is case sensitive
-			Integer index = columnNameMap.get(columnName);
-			if (index == null) {
-				return -1;
-			} else {
-				return index;
-			}
-		}
-	}
 }
@@ -0,0 +1,139 @@
+package com.j256.ormlite.android;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Input stream which reads a blob column from a single row in fixed size chunks with substr() queries keyed by the
+ * rowid. Only one chunk is in memory at a time and the chunks are small enough to fit into a cursor window so blobs
+ * which are too large to be read with {@link Cursor#getBlob(int)} can still be streamed. Returned by
+ * {@link AndroidDatabaseConnection#openBlobStream(String, String, long, int)}.
+ * 
+ * <p>
+ * <b>NOTE:</b> Each chunk is read with a separate query so the row should not be changed while it is being streamed
+ * unless the stream is read inside of a transaction.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class BlobInputStream extends InputStream {
+
+	private static final Logger logger = LoggerFactory.getLogger(BlobInputStream.class);
+	private static final byte[] EMPTY_CHUNK = new byte[0];
+
+	private final SQLiteDatabase db;
+	private final String chunkQuery;
+	private final String rowIdArg;
+	private final int chunkSize;
+	private byte[] chunk = EMPTY_CHUNK;
+	private int chunkOffset;
+	// substr() positions start at 1
+	private long blobPosition = 1;
+	private boolean eof;
+	private boolean closed;
+
+	BlobInputStream(SQLiteDatabase db, String chunkQuery, long rowId, int chunkSize) {
+		this.db = db;
+		this.chunkQuery = chunkQuery;
+		this.rowIdArg = Long.toString(rowId);
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fillChunk()) {
+			return -1;
+		}
+		return chunk[chunkOffset++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (!fillChunk()) {
+			return -1;
+		}
+		int numBytes = Math.min(length, chunk.length - chunkOffset);
+		System.arraycopy(chunk, chunkOffset, buffer, offset, numBytes);
+		chunkOffset += numBytes;
+		return numBytes;
+	}
+
+	@Override
+	public long skip(long numBytes) throws IOException {
+		if (numBytes <= 0 || !fillChunk()) {
+			return 0;
+		}
+		// we only skip inside of the current chunk so we never skip past the end of the blob
+		int numSkipped = (int) Math.min(numBytes, chunk.length - chunkOffset);
+		chunkOffset += numSkipped;
+		return numSkipped;
+	}
+
+	@Override
+	public int available() {
+		return chunk.length - chunkOffset;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		chunk = EMPTY_CHUNK;
+		chunkOffset = 0;
+	}
+
+	/**
+	 * Make sure that the current chunk has bytes in it, reading the next chunk from the database if necessary.
+	 * 
+	 * @return False if we are at the end of the blob.
+	 */
+	private boolean fillChunk() throws IOException {
+		if (closed) {
+			throw new IOException("Blob stream has been closed");
+		}
+		if (chunkOffset < chunk.length) {
+			return true;
+		}
+		if (eof) {
+			return false;
+		}
+		Cursor cursor = null;
+		try {
+			cursor = db.rawQuery(chunkQuery,
+					new String[] { Long.toString(blobPosition), Integer.toString(chunkSize), rowIdArg });
+			if (!cursor.moveToFirst()) {
+				throw new IOException("Row with rowid " + rowIdArg + " no longer exists");
+			}
+			byte[] bytes = (cursor.isNull(0) ? null : cursor.getBlob(0));
+			if (bytes == null || bytes.length == 0) {
+				eof = true;
+				chunk = EMPTY_CHUNK;
+				return false;
+			}
+			logger.trace("read {} blob bytes at position {} of rowid {}", bytes.length, blobPosition, rowIdArg);
+			chunk = bytes;
+			chunkOffset = 0;
+			blobPosition += bytes.length;
+			if (bytes.length < chunkSize) {
+				// short chunk means that we got the end of the blob so we can skip the last query
+				eof = true;
+			}
+			return true;
+		} catch (android.database.SQLException e) {
+			throw new IOException("Reading blob chunk at position " + blobPosition + " of rowid " + rowIdArg
+					+ " failed: " + chunkQuery, e);
+		} finally {
+			if (cursor != null) {
+				cursor.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.j256.ormlite.android;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable table which maps the column names of a query result to their column indexes. These are shared between
+ * {@link AndroidDatabaseResults} instances so the table is only built the first time a particular query shape is seen.
+ * 
+ * @author graywatson
+ */
+class ColumnNameIndex {
+
+	private static final int MIN_NUM_COLUMN_NAMES_MAP = 8;
+	private static final int MAX_NUM_CACHED_STATEMENTS = 512;
+	private static final char ESCAPE_CHAR = '`';
+
+	private static final Map<String, ColumnNameIndex> statementIndexMap =
+			new ConcurrentHashMap<String, ColumnNameIndex>();
+	/**
+	 * The last index that we handed out. This is a hit when the same cursor is used over and over by an adapter.
+	 */
+	private static volatile ColumnNameIndex lastIndex;
+
+	private final String[] columnNames;
+	/**
+	 * Column names with the escape characters removed or null if the column name was not escaped.
+	 */
+	private final String[] unescapedNames;
+	private final Map<String, Integer> columnNameMap;
+	private final Map<String, Integer> unescapedNameMap;
+
+	private ColumnNameIndex(String[] columnNames) {
+		this.columnNames = columnNames;
+		this.unescapedNames = new String[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++) {
+			/*
+			 * If we've asked for '*' then the field foo is in the cursor as foo. But if we ask for a particular field
+			 * list with DISTINCT, which escapes the field names, they are in the cursor _with_ the escaping. See
+			 * SqliteAndroidDatabaseType.appendEscapedEntityName(...).
+			 */
+			unescapedNames[i] = unescape(columnNames[i]);
+		}
+		if (columnNames.length >= MIN_NUM_COLUMN_NAMES_MAP) {
+			this.columnNameMap = new HashMap<String, Integer>();
+			this.unescapedNameMap = new HashMap<String, Integer>();
+			// go backwards so the first column with a name wins like the linear search
+			for (int i = columnNames.length - 1; i >= 0; i--) {
+				// NOTE: this is case sensitive
+				this.columnNameMap.put(columnNames[i], i);
+				if (unescapedNames[i] != null) {
+					this.unescapedNameMap.put(unescapedNames[i], i);
+				}
+			}
+		} else {
+			this.columnNameMap = null;
+			this.unescapedNameMap = null;
+		}
+	}
+
+	/**
+	 * Return the index table for the column names from a cursor.
+	 * 
+	 * @param sql
+	 *            SQL statement that generated the cursor which is used as the cache key or null if not known.
+	 * @param columnNames
+	 *            Column names from the cursor.
+	 */
+	public static ColumnNameIndex forColumns(String sql, String[] columnNames) {
+		ColumnNameIndex index = lastIndex;
+		if (index != null && index.columnNames == columnNames) {
+			return index;
+		}
+		if (sql != null) {
+			index = statementIndexMap.get(sql);
+			if (index != null && index.matches(columnNames)) {
+				lastIndex = index;
+				return index;
+			}
+		}
+		index = new ColumnNameIndex(columnNames);
+		if (sql != null) {
+			if (statementIndexMap.size() >= MAX_NUM_CACHED_STATEMENTS) {
+				// simple bounding, the commonly used statements will be added back quickly
+				statementIndexMap.clear();
+			}
+			statementIndexMap.put(sql, index);
+		}
+		lastIndex = index;
+		return index;
+	}
+
+	/**
+	 * Return the index of the column-name, or its escaped version, or -1 if not found.
+	 */
+	public int findColumn(String columnName) {
+		int index = lookupColumn(columnName);
+		if (index >= 0) {
+			return index;
+		}
+		return lookupUnescapedColumn(columnName);
+	}
+
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+
+	private boolean matches(String[] otherNames) {
+		if (otherNames.length != columnNames.length) {
+			return false;
+		}
+		for (int i = 0; i < columnNames.length; i++) {
+			if (!columnNames[i].equals(otherNames[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int lookupColumn(String columnName) {
+		// we either use linear search or our name map
+		if (columnNameMap == null) {
+			for (int i = 0; i < columnNames.length; i++) {
+				// NOTE: this is case sensitive
+				if (columnNames[i].equals(columnName)) {
+					return i;
+				}
+			}
+			return -1;
+		} else {
+			// NOTE: this is case sensitive
+			Integer index = columnNameMap.get(columnName);
+			if (index == null) {
+				return -1;
+			} else {
+				return index;
+			}
+		}
+	}
+
+	private int lookupUnescapedColumn(String columnName) {
+		if (unescapedNameMap == null) {
+			for (int i = 0; i < unescapedNames.length; i++) {
+				if (unescapedNames[i] != null && unescapedNames[i].equals(columnName)) {
+					return i;
+				}
+			}
+			return -1;
+		} else {
+			Integer index = unescapedNameMap.get(columnName);
+			if (index == null) {
+				return -1;
+			} else {
+				return index;
+			}
+		}
+	}
+
+	/**
+	 * Remove the escaping from a column-name or return null if it was not escaped. Dotted names are escaped a part at a
+	 * time such as `table`.`column`.
+	 */
+	private static String unescape(String name) {
+		if (name.indexOf(ESCAPE_CHAR) < 0) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(name.length());
+		int start = 0;
+		while (true) {
+			int end = name.indexOf('.', start);
+			if (end < 0) {
+				end = name.length();
+			}
+			if (end - start < 2 || name.charAt(start) != ESCAPE_CHAR || name.charAt(end - 1) != ESCAPE_CHAR) {
+				// not something that we escaped
+				return null;
+			}
+			sb.append(name, start + 1, end - 1);
+			if (end == name.length()) {
+				return sb.toString();
+			}
+			sb.append('.');
+			start = end + 1;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.misc.IOUtils;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.stmt.StatementBuilder.StatementType;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+
+/**
+ * Queries which return a single numeric column as a primitive array instead of mapping each row. This is useful when
+ * pulling large numbers of ids, timestamps, or counters since no object is allocated per row: the values are read
+ * straight from the results into an array which is grown as needed and trimmed to size at the end.
+ * 
+ * <pre>
+ * QueryBuilder&lt;Account, Long&gt; qb = accountDao.queryBuilder();
+ * qb.selectColumns(&quot;id&quot;).where().gt(&quot;modified&quot;, lastSync);
+ * long[] ids = ColumnQueries.queryForLongArray(accountDao, qb.prepare(), &quot;id&quot;);
+ * </pre>
+ * 
+ * <p>
+ * <b>NOTE:</b> Null values in the column are returned as 0.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class ColumnQueries {
+
+	private static Logger logger = LoggerFactory.getLogger(ColumnQueries.class);
+	private static final int INITIAL_ARRAY_SIZE = 64;
+
+	/**
+	 * Run the query and return the values of the column as a long array in the order of the results.
+	 * 
+	 * @param dao
+	 *            DAO whose connection-source and table the query is run against.
+	 * @param preparedQuery
+	 *            Query which should select the column.
+	 * @param columnName
+	 *            Name of the column in the results whose values are returned.
+	 */
+	public static long[] queryForLongArray(Dao<?, ?> dao, PreparedQuery<?> preparedQuery, String columnName)
+			throws SQLException {
+		LongColumnValues values = new LongColumnValues();
+		readColumn(dao, preparedQuery, columnName, values);
+		return values.toArray();
+	}
+
+	/**
+	 * Run the query and return the values of the column as a double array in the order of the results.
+	 * 
+	 * @param dao
+	 *            DAO whose connection-source and table the query is run against.
+	 * @param preparedQuery
+	 *            Query which should select the column.
+	 * @param columnName
+	 *            Name of the column in the results whose values are returned.
+	 */
+	public static double[] queryForDoubleArray(Dao<?, ?> dao, PreparedQuery<?> preparedQuery, String columnName)
+			throws SQLException {
+		DoubleColumnValues values = new DoubleColumnValues();
+		readColumn(dao, preparedQuery, columnName, values);
+		return values.toArray();
+	}
+
+	/**
+	 * Run the query and add the values of the column from each row of the results.
+	 */
+	private static void readColumn(Dao<?, ?> dao, PreparedQuery<?> preparedQuery, String columnName,
+			ColumnValues values) throws SQLException {
+		ConnectionSource connectionSource = dao.getConnectionSource();
+		DatabaseConnection connection = connectionSource.getReadOnlyConnection(dao.getTableName());
+		CompiledStatement compiledStatement = null;
+		DatabaseResults results = null;
+		try {
+			compiledStatement = preparedQuery.compile(connection, StatementType.SELECT);
+			results = compiledStatement.runQuery(null);
+			int columnIndex = results.findColumn(columnName);
+			values.allocate(initialSize(results));
+			for (boolean ok = results.first(); ok; ok = results.next()) {
+				values.add(results, columnIndex);
+			}
+			logger.trace("read {} values from column {}", values.count, columnName);
+		} finally {
+			IOUtils.closeQuietly(results);
+			IOUtils.closeQuietly(compiledStatement);
+			connectionSource.releaseConnection(connection);
+		}
+	}
+
+	/**
+	 * Size the array from the count of the results if it is known so we don't have to grow it at all. Getting the
+	 * count of an Android cursor fills its window which the iteration would do anyway.
+	 */
+	private static int initialSize(DatabaseResults results) {
+		if (results instanceof AndroidDatabaseResults) {
+			int count = ((AndroidDatabaseResults) results).getCount();
+			if (count > 0) {
+				return count;
+			}
+		}
+		return INITIAL_ARRAY_SIZE;
+	}
+
+	/**
+	 * Primitive array of column values which is grown as the values are added.
+	 */
+	private static abstract class ColumnValues {
+		int count;
+
+		abstract void allocate(int size);
+
+		abstract void add(DatabaseResults results, int columnIndex) throws SQLException;
+	}
+
+	private static class LongColumnValues extends ColumnValues {
+		private long[] values;
+
+		@Override
+		void allocate(int size) {
+			values = new long[size];
+		}
+
+		@Override
+		void add(DatabaseResults results, int columnIndex) throws SQLException {
+			if (count == values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[count++] = results.getLong(columnIndex);
+		}
+
+		long[] toArray() {
+			if (count == values.length) {
+				return values;
+			} else {
+				return Arrays.copyOf(values, count);
+			}
+		}
+	}
+
+	private static class DoubleColumnValues extends ColumnValues {
+		private double[] values;
+
+		@Override
+		void allocate(int size) {
+			values = new double[size];
+		}
+
+		@Override
+		void add(DatabaseResults results, int columnIndex) throws SQLException {
+			if (count == values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[count++] = results.getDouble(columnIndex);
+		}
+
+		double[] toArray() {
+			if (count == values.length) {
+				return values;
+			} else {
+				return Arrays.copyOf(values, count);
+			}
+		}
+	}
+}
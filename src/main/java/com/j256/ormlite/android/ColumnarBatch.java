@@ -0,0 +1,478 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+
+/**
+ * Batch of rows read from the results column by column into primitive arrays instead of being mapped into entities.
+ * Long and double columns are stored in {@code long[]} and {@code double[]} arrays, string columns are dictionary
+ * encoded into {@code int[]} codes, and each column has a null bitmap. This is meant for reading large projections,
+ * such as the readings behind a chart, without allocating an object per row.
+ * 
+ * <p>
+ * The batch is reused across pages. Each call to {@link #fill(AndroidDatabaseResults)} reads the next rows from the
+ * cursor, up to the capacity of the batch, over the top of the previous page:
+ * </p>
+ * 
+ * <pre>
+ * ColumnarBatch batch = new ColumnarBatch(1024);
+ * int timeColumn = batch.addColumn(&quot;time&quot;, ColumnarBatch.ColumnKind.LONG);
+ * int valueColumn = batch.addColumn(&quot;value&quot;, ColumnarBatch.ColumnKind.DOUBLE);
+ * CloseableIterator&lt;Reading&gt; iterator = readingDao.iterator(preparedQuery);
+ * try {
+ * 	AndroidDatabaseResults results = (AndroidDatabaseResults) iterator.getRawResults();
+ * 	while (batch.fill(results) &gt; 0) {
+ * 		batch.forEachDouble(valueColumn, visitor);
+ * 	}
+ * } finally {
+ * 	iterator.closeQuietly();
+ * }
+ * </pre>
+ * 
+ * <p>
+ * The dictionaries of the string columns are kept across pages so the codes stay the same for the whole query. Call
+ * {@link #clearDictionaries()} before reusing the batch for another query.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> This class is not thread-safe.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class ColumnarBatch {
+
+	private static Logger logger = LoggerFactory.getLogger(ColumnarBatch.class);
+	private static final int INITIAL_COLUMN_COUNT = 4;
+
+	private final int capacity;
+	private final CharArrayBuffer charBuffer = new CharArrayBuffer(64);
+
+	private int columnCount;
+	private String[] columnNames = new String[INITIAL_COLUMN_COUNT];
+	private ColumnKind[] columnKinds = new ColumnKind[INITIAL_COLUMN_COUNT];
+	private long[][] longColumns = new long[INITIAL_COLUMN_COUNT][];
+	private double[][] doubleColumns = new double[INITIAL_COLUMN_COUNT][];
+	private int[][] codeColumns = new int[INITIAL_COLUMN_COUNT][];
+	private StringDictionary[] dictionaries = new StringDictionary[INITIAL_COLUMN_COUNT];
+	private long[][] nullBitmaps = new long[INITIAL_COLUMN_COUNT][];
+	private int[] cursorColumns = new int[INITIAL_COLUMN_COUNT];
+	private int rowCount;
+
+	/**
+	 * @param capacity
+	 *            Maximum number of rows read into the batch by each call to {@link #fill(AndroidDatabaseResults)}.
+	 */
+	public ColumnarBatch(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Add a column from the results to be read into the batch.
+	 * 
+	 * @return The index of the column in the batch which is passed to the other methods.
+	 */
+	public int addColumn(String columnName, ColumnKind kind) {
+		if (columnCount == columnNames.length) {
+			int newLength = columnNames.length * 2;
+			columnNames = Arrays.copyOf(columnNames, newLength);
+			columnKinds = Arrays.copyOf(columnKinds, newLength);
+			longColumns = Arrays.copyOf(longColumns, newLength);
+			doubleColumns = Arrays.copyOf(doubleColumns, newLength);
+			codeColumns = Arrays.copyOf(codeColumns, newLength);
+			dictionaries = Arrays.copyOf(dictionaries, newLength);
+			nullBitmaps = Arrays.copyOf(nullBitmaps, newLength);
+			cursorColumns = Arrays.copyOf(cursorColumns, newLength);
+		}
+		int column = columnCount++;
+		columnNames[column] = columnName;
+		columnKinds[column] = kind;
+		switch (kind) {
+			case LONG:
+				longColumns[column] = new long[capacity];
+				break;
+			case DOUBLE:
+				doubleColumns[column] = new double[capacity];
+				break;
+			case STRING:
+				codeColumns[column] = new int[capacity];
+				dictionaries[column] = new StringDictionary();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown column kind: " + kind);
+		}
+		nullBitmaps[column] = new long[(capacity + 63) / 64];
+		return column;
+	}
+
+	/**
+	 * Read the next rows from the results into the batch, replacing the rows of the previous fill. Reading starts at
+	 * the row after the current position of the cursor so this should be called on results which have not been moved
+	 * yet or which were last moved by this method.
+	 * 
+	 * @return The number of rows read which will be 0 once the results are exhausted.
+	 */
+	public int fill(AndroidDatabaseResults results) throws SQLException {
+		for (int column = 0; column < columnCount; column++) {
+			cursorColumns[column] = results.findColumn(columnNames[column]);
+			Arrays.fill(nullBitmaps[column], 0L);
+		}
+		Cursor cursor = results.getRawCursor();
+		int row = 0;
+		while (row < capacity && cursor.moveToNext()) {
+			for (int column = 0; column < columnCount; column++) {
+				readValue(cursor, column, row);
+			}
+			row++;
+		}
+		rowCount = row;
+		logger.trace("filled columnar batch with {} rows of {} columns", rowCount, columnCount);
+		return rowCount;
+	}
+
+	/**
+	 * Return the number of rows read by the last call to {@link #fill(AndroidDatabaseResults)}.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Return the number of columns that have been added to the batch.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * Return the maximum number of rows read by each fill.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Return true if the column was null in the row.
+	 */
+	public boolean isNull(int column, int row) {
+		checkColumn(column);
+		checkRow(row);
+		return (nullBitmaps[column][row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * Return the value of a {@link ColumnKind#LONG} column in the row or 0 if it was null.
+	 */
+	public long getLong(int column, int row) {
+		checkRow(row);
+		return longColumn(column)[row];
+	}
+
+	/**
+	 * Return the value of a {@link ColumnKind#DOUBLE} column in the row or 0 if it was null.
+	 */
+	public double getDouble(int column, int row) {
+		checkRow(row);
+		return doubleColumn(column)[row];
+	}
+
+	/**
+	 * Return the dictionary code of a {@link ColumnKind#STRING} column in the row or -1 if it was null.
+	 */
+	public int getStringCode(int column, int row) {
+		checkRow(row);
+		return codeColumn(column)[row];
+	}
+
+	/**
+	 * Return the value of a {@link ColumnKind#STRING} column in the row or null if it was null. The string is shared
+	 * by all rows with the same value.
+	 */
+	public String getString(int column, int row) {
+		int code = getStringCode(column, row);
+		if (code < 0) {
+			return null;
+		} else {
+			return dictionaries[column].values[code];
+		}
+	}
+
+	/**
+	 * Return the string for a dictionary code of a {@link ColumnKind#STRING} column.
+	 */
+	public String getDictionaryString(int column, int code) {
+		codeColumn(column);
+		StringDictionary dictionary = dictionaries[column];
+		if (code < 0 || code >= dictionary.size) {
+			throw new IndexOutOfBoundsException("Dictionary code " + code + " is not in [0," + dictionary.size + ")");
+		}
+		return dictionary.values[code];
+	}
+
+	/**
+	 * Return the number of distinct strings seen so far in a {@link ColumnKind#STRING} column.
+	 */
+	public int getDictionarySize(int column) {
+		codeColumn(column);
+		return dictionaries[column].size;
+	}
+
+	/**
+	 * Return the array backing a {@link ColumnKind#LONG} column. Only the first {@link #getRowCount()} entries are
+	 * valid and the array is overwritten by the next fill.
+	 */
+	public long[] getLongColumn(int column) {
+		return longColumn(column);
+	}
+
+	/**
+	 * Return the array backing a {@link ColumnKind#DOUBLE} column. Only the first {@link #getRowCount()} entries are
+	 * valid and the array is overwritten by the next fill.
+	 */
+	public double[] getDoubleColumn(int column) {
+		return doubleColumn(column);
+	}
+
+	/**
+	 * Return the array of dictionary codes backing a {@link ColumnKind#STRING} column. Only the first
+	 * {@link #getRowCount()} entries are valid and the array is overwritten by the next fill.
+	 */
+	public int[] getStringCodeColumn(int column) {
+		return codeColumn(column);
+	}
+
+	/**
+	 * Call the visitor with each non-null value of a {@link ColumnKind#LONG} column.
+	 */
+	public void forEachLong(int column, LongVisitor visitor) {
+		long[] values = longColumn(column);
+		long[] nulls = nullBitmaps[column];
+		for (int row = 0; row < rowCount; row++) {
+			if ((nulls[row >>> 6] & (1L << row)) == 0) {
+				visitor.visit(row, values[row]);
+			}
+		}
+	}
+
+	/**
+	 * Call the visitor with each non-null value of a {@link ColumnKind#DOUBLE} column.
+	 */
+	public void forEachDouble(int column, DoubleVisitor visitor) {
+		double[] values = doubleColumn(column);
+		long[] nulls = nullBitmaps[column];
+		for (int row = 0; row < rowCount; row++) {
+			if ((nulls[row >>> 6] & (1L << row)) == 0) {
+				visitor.visit(row, values[row]);
+			}
+		}
+	}
+
+	/**
+	 * Call the visitor with the dictionary code of each non-null value of a {@link ColumnKind#STRING} column.
+	 */
+	public void forEachStringCode(int column, StringCodeVisitor visitor) {
+		int[] codes = codeColumn(column);
+		for (int row = 0; row < rowCount; row++) {
+			if (codes[row] >= 0) {
+				visitor.visit(row, codes[row]);
+			}
+		}
+	}
+
+	/**
+	 * Forget the strings in the dictionaries of the string columns. This should be called before the batch is reused
+	 * for a different query.
+	 */
+	public void clearDictionaries() {
+		for (int column = 0; column < columnCount; column++) {
+			if (dictionaries[column] != null) {
+				dictionaries[column].clear();
+			}
+		}
+	}
+
+	private void readValue(Cursor cursor, int column, int row) {
+		int cursorColumn = cursorColumns[column];
+		boolean isNull = cursor.isNull(cursorColumn);
+		if (isNull) {
+			nullBitmaps[column][row >>> 6] |= (1L << row);
+		}
+		switch (columnKinds[column]) {
+			case LONG:
+				longColumns[column][row] = (isNull ? 0L : cursor.getLong(cursorColumn));
+				break;
+			case DOUBLE:
+				doubleColumns[column][row] = (isNull ? 0.0 : cursor.getDouble(cursorColumn));
+				break;
+			case STRING:
+				if (isNull) {
+					codeColumns[column][row] = -1;
+				} else {
+					cursor.copyStringToBuffer(cursorColumn, charBuffer);
+					codeColumns[column][row] = dictionaries[column].lookup(charBuffer.data, charBuffer.sizeCopied);
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unknown column kind: " + columnKinds[column]);
+		}
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not in [0," + rowCount + ")");
+		}
+	}
+
+	private long[] longColumn(int column) {
+		checkKind(column, ColumnKind.LONG);
+		return longColumns[column];
+	}
+
+	private double[] doubleColumn(int column) {
+		checkKind(column, ColumnKind.DOUBLE);
+		return doubleColumns[column];
+	}
+
+	private int[] codeColumn(int column) {
+		checkKind(column, ColumnKind.STRING);
+		return codeColumns[column];
+	}
+
+	private void checkColumn(int column) {
+		if (column < 0 || column >= columnCount) {
+			throw new IndexOutOfBoundsException("Column " + column + " is not in [0," + columnCount + ")");
+		}
+	}
+
+	private void checkKind(int column, ColumnKind kind) {
+		checkColumn(column);
+		if (columnKinds[column] != kind) {
+			throw new IllegalArgumentException(
+					"Column " + columnNames[column] + " is a " + columnKinds[column] + " column, not " + kind);
+		}
+	}
+
+	/**
+	 * How the values of a column are stored in the batch.
+	 */
+	public enum ColumnKind {
+		/** integer values stored in a long[] */
+		LONG,
+		/** floating point values stored in a double[] */
+		DOUBLE,
+		/** string values stored as codes in an int[] with a dictionary of the distinct values */
+		STRING;
+	}
+
+	/**
+	 * Called for each non-null value of a long column.
+	 */
+	public interface LongVisitor {
+		public void visit(int row, long value);
+	}
+
+	/**
+	 * Called for each non-null value of a double column.
+	 */
+	public interface DoubleVisitor {
+		public void visit(int row, double value);
+	}
+
+	/**
+	 * Called for each non-null value of a string column with its dictionary code.
+	 */
+	public interface StringCodeVisitor {
+		public void visit(int row, int code);
+	}
+
+	/**
+	 * Open addressing hash of the distinct strings of a column. Lookups compare against the characters copied out of
+	 * the cursor so a string is only allocated the first time a value is seen.
+	 */
+	private static class StringDictionary {
+
+		private String[] values = new String[16];
+		private int[] hashes = new int[16];
+		// code + 1 of the string in each slot, 0 if empty
+		private int[] slots = new int[32];
+		private int size;
+
+		public int lookup(char[] chars, int length) {
+			int hash = hash(chars, length);
+			int mask = slots.length - 1;
+			for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+				int code = slots[slot] - 1;
+				if (code < 0) {
+					return add(new String(chars, 0, length), hash, slot);
+				}
+				if (hashes[code] == hash && matches(values[code], chars, length)) {
+					return code;
+				}
+			}
+		}
+
+		public void clear() {
+			Arrays.fill(values, 0, size, null);
+			Arrays.fill(slots, 0);
+			size = 0;
+		}
+
+		private int add(String value, int hash, int slot) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+				hashes = Arrays.copyOf(hashes, size * 2);
+			}
+			int code = size++;
+			values[code] = value;
+			hashes[code] = hash;
+			slots[slot] = code + 1;
+			// keep the table at most half full
+			if (size * 2 > slots.length) {
+				rehash();
+			}
+			return code;
+		}
+
+		private void rehash() {
+			slots = new int[slots.length * 2];
+			int mask = slots.length - 1;
+			for (int code = 0; code < size; code++) {
+				int slot = hashes[code] & mask;
+				while (slots[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = code + 1;
+			}
+		}
+
+		private static int hash(char[] chars, int length) {
+			// same as String.hashCode() then spread so the low bits used by the table are mixed
+			int hash = 0;
+			for (int i = 0; i < length; i++) {
+				hash = 31 * hash + chars[i];
+			}
+			return hash ^ (hash >>> 16);
+		}
+
+		private static boolean matches(String value, char[] chars, int length) {
+			if (value.length() != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (value.charAt(i) != chars[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
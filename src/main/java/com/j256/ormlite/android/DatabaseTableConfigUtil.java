@@ -1,13 +1,24 @@
 package com.j256.ormlite.android;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.j256.ormlite.db.DatabaseType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
 import com.j256.ormlite.support.ConnectionSource;
 import com.j256.ormlite.table.DatabaseTableConfig;
 
@@ -21,26 +32,191 @@ import com.j256.ormlite.table.DatabaseTableConfig;
  */
 public class DatabaseTableConfigUtil {
 
+	private static Logger logger = LoggerFactory.getLogger(DatabaseTableConfigUtil.class);
+	private static final List<TableConfigProvider> tableConfigProviders =
+			new CopyOnWriteArrayList<TableConfigProvider>();
 	/**
-	 * Build our list table config from a class using some annotation fu around.
+	 * Class -> database-type class -> template. The classes are weak keys so they can still be unloaded.
+	 */
+	private static final Map<Class<?>, Map<Class<?>, TableConfigTemplate>> templateCache =
+			new WeakHashMap<Class<?>, Map<Class<?>, TableConfigTemplate>>();
+	/**
+	 * Fields of the DatabaseFieldConfig class which are copied when a cached config is handed out.
+	 */
+	private static final Field[] fieldConfigFields = findFieldConfigFields();
+
+	static {
+		loadGeneratedRegistries();
+	}
+
+	/**
+	 * Build our list table config from a class using some annotation fu around. Any registered
+	 * {@link TableConfigProvider}s are asked first.
+	 * 
+	 * <p>
+	 * The results of the annotation processing are cached per database-type and class so they are not redone when the
+	 * DAOs are created again, such as after the helper has been released and re-opened. Each call returns a new table
+	 * config with copies of the cached field configs since the DAOs initialize the table configs and callers may change
+	 * the field configs.
+	 * </p>
 	 */
 	public static <T> DatabaseTableConfig<T> fromClass(ConnectionSource connectionSource, Class<T> clazz)
 			throws SQLException {
+		for (TableConfigProvider provider : tableConfigProviders) {
+			DatabaseTableConfig<T> config = provider.getTableConfig(connectionSource, clazz);
+			if (config != null) {
+				return config;
+			}
+		}
 		DatabaseType databaseType = connectionSource.getDatabaseType();
-		String tableName = DatabaseTableConfig.extractTableName(databaseType, clazz);
-		List<DatabaseFieldConfig> fieldConfigs = new ArrayList<DatabaseFieldConfig>();
-		for (Class<?> classWalk = clazz; classWalk != null; classWalk = classWalk.getSuperclass()) {
-			for (Field field : classWalk.getDeclaredFields()) {
-				DatabaseFieldConfig config = DatabaseFieldConfig.fromField(databaseType, tableName, field);
-				if (config != null && config.isPersisted()) {
-					fieldConfigs.add(config);
+		TableConfigTemplate template = getCachedTemplate(databaseType, clazz);
+		if (template == null) {
+			String tableName = DatabaseTableConfig.extractTableName(databaseType, clazz);
+			List<DatabaseFieldConfig> fieldConfigs = new ArrayList<DatabaseFieldConfig>();
+			for (Class<?> classWalk = clazz; classWalk != null; classWalk = classWalk.getSuperclass()) {
+				for (Field field : classWalk.getDeclaredFields()) {
+					DatabaseFieldConfig config = DatabaseFieldConfig.fromField(databaseType, tableName, field);
+					if (config != null && config.isPersisted()) {
+						fieldConfigs.add(config);
+					}
 				}
 			}
+			template = new TableConfigTemplate(tableName, fieldConfigs);
+			cacheTemplate(databaseType, clazz, template);
 		}
-		if (fieldConfigs.size() == 0) {
+		if (template.fieldConfigs.size() == 0) {
 			return null;
 		} else {
-			return new DatabaseTableConfig<T>(clazz, tableName, fieldConfigs);
+			List<DatabaseFieldConfig> fieldConfigs = new ArrayList<DatabaseFieldConfig>(template.fieldConfigs.size());
+			for (DatabaseFieldConfig fieldConfig : template.fieldConfigs) {
+				fieldConfigs.add(copyFieldConfig(fieldConfig));
+			}
+			return new DatabaseTableConfig<T>(clazz, template.tableName, fieldConfigs);
+		}
+	}
+
+	/**
+	 * Clear the cache of table configurations that were built from the annotations. This is only necessary if the
+	 * classes are changed at runtime.
+	 */
+	public static void clearTableConfigCache() {
+		synchronized (templateCache) {
+			templateCache.clear();
+		}
+	}
+
+	/**
+	 * Register a provider which is asked for table configurations before reflection is used.
+	 */
+	public static void addTableConfigProvider(TableConfigProvider provider) {
+		tableConfigProviders.add(provider);
+	}
+
+	/**
+	 * Remove a provider that was registered with {@link #addTableConfigProvider(TableConfigProvider)}.
+	 */
+	public static void removeTableConfigProvider(TableConfigProvider provider) {
+		tableConfigProviders.remove(provider);
+	}
+
+	/**
+	 * Return true if the annotations of the class have been processed and cached for the database-type.
+	 */
+	static boolean isTableConfigCached(DatabaseType databaseType, Class<?> clazz) {
+		return (getCachedTemplate(databaseType, clazz) != null);
+	}
+
+	private static TableConfigTemplate getCachedTemplate(DatabaseType databaseType, Class<?> clazz) {
+		synchronized (templateCache) {
+			Map<Class<?>, TableConfigTemplate> typeMap = templateCache.get(clazz);
+			if (typeMap == null) {
+				return null;
+			} else {
+				return typeMap.get(databaseType.getClass());
+			}
+		}
+	}
+
+	private static void cacheTemplate(DatabaseType databaseType, Class<?> clazz, TableConfigTemplate template) {
+		synchronized (templateCache) {
+			Map<Class<?>, TableConfigTemplate> typeMap = templateCache.get(clazz);
+			if (typeMap == null) {
+				// there is almost always just the one database-type
+				typeMap = new HashMap<Class<?>, TableConfigTemplate>(2);
+				templateCache.put(clazz, typeMap);
+			}
+			typeMap.put(databaseType.getClass(), template);
+		}
+	}
+
+	/**
+	 * Make a shallow copy of the field config. This copies the fields with reflection so that it keeps up with the
+	 * settings that are added to DatabaseFieldConfig.
+	 */
+	private static DatabaseFieldConfig copyFieldConfig(DatabaseFieldConfig fieldConfig) throws SQLException {
+		DatabaseFieldConfig copy = new DatabaseFieldConfig();
+		try {
+			for (Field field : fieldConfigFields) {
+				field.set(copy, field.get(fieldConfig));
+			}
+		} catch (IllegalAccessException e) {
+			throw new SQLException("Could not copy field config of " + fieldConfig.getFieldName(), e);
+		}
+		return copy;
+	}
+
+	private static Field[] findFieldConfigFields() {
+		List<Field> fields = new ArrayList<Field>();
+		for (Class<?> classWalk = DatabaseFieldConfig.class; classWalk != Object.class; classWalk =
+				classWalk.getSuperclass()) {
+			for (Field field : classWalk.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+					continue;
+				}
+				if (!field.isAccessible()) {
+					field.setAccessible(true);
+				}
+				fields.add(field);
+			}
+		}
+		return fields.toArray(new Field[fields.size()]);
+	}
+
+	/**
+	 * Load the registries of table configs that were generated at compile time by the annotation processor. They are
+	 * listed in the META-INF/services/com.j256.ormlite.android.TableConfigProvider files which the processor writes for
+	 * each module so there are none if the annotation processor was not used.
+	 */
+	private static void loadGeneratedRegistries() {
+		Iterator<TableConfigProvider> iterator =
+				ServiceLoader.load(TableConfigProvider.class, TableConfigProvider.class.getClassLoader()).iterator();
+		while (true) {
+			try {
+				if (!iterator.hasNext()) {
+					break;
+				}
+				TableConfigProvider registry = iterator.next();
+				tableConfigProviders.add(registry);
+				logger.debug("loaded generated table config registry {}", registry.getClass().getName());
+			} catch (ServiceConfigurationError e) {
+				// the iterator moves on to the next provider after an error
+				logger.warn(e, "could not load generated table config registry");
+			}
+		}
+	}
+
+	/**
+	 * Results of processing the annotations of a class. This doesn't hold a reference to the class so the weak keys of
+	 * the cache still work.
+	 */
+	private static class TableConfigTemplate {
+		final String tableName;
+		final List<DatabaseFieldConfig> fieldConfigs;
+
+		public TableConfigTemplate(String tableName, List<DatabaseFieldConfig> fieldConfigs) {
+			this.tableName = tableName;
+			this.fieldConfigs = Collections.unmodifiableList(fieldConfigs);
 		}
 	}
 }
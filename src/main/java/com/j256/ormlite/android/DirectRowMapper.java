@@ -0,0 +1,24 @@
+package com.j256.ormlite.android;
+
+import com.j256.ormlite.stmt.GenericRowMapper;
+
+/**
+ * Row mapper which sets the fields of the objects directly from the results instead of going through the field-types.
+ * It describes the fields that it sets so {@link RowMapperRegistry} can check that it agrees with the table
+ * configuration that the DAO is actually using before it is used.
+ * 
+ * @author graywatson
+ */
+public interface DirectRowMapper<T> extends GenericRowMapper<T> {
+
+	/**
+	 * Return the names of the Java fields that are set by the mapper.
+	 */
+	public String[] getFieldNames();
+
+	/**
+	 * Return the names of the columns that the fields are read from. These are in the same order as
+	 * {@link #getFieldNames()}.
+	 */
+	public String[] getColumnNames();
+}
@@ -0,0 +1,316 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+/**
+ * Write scheduler which runs small write tasks from many threads on a single writer thread, committing whatever tasks
+ * are pending in one transaction. This is often called group commit. Each transaction costs sqlite a journal sync so
+ * committing 50 small writes at once is much faster than committing them one at a time.
+ * 
+ * <p>
+ * Tasks are submitted with {@link #submit(Callable)} which returns a {@link Future} that completes once the task's
+ * transaction has been committed. Each task runs inside of its own save-point so if it throws then only its changes are
+ * rolled back and the exception is passed to its future. The rest of the group is still committed. Tasks typically call
+ * DAO methods which will use the writer's connection since it is saved as the special connection for the writer
+ * thread.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> Don't wait on a future from inside of another task since the writer thread would be waiting on itself.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class GroupCommitWriteQueue {
+
+	public static final int DEFAULT_MAX_GROUP_SIZE = 100;
+	public static final long DEFAULT_MAX_GROUP_DELAY_MILLIS = 5;
+
+	private static Logger logger = LoggerFactory.getLogger(GroupCommitWriteQueue.class);
+	private static final String GROUP_SAVE_POINT_NAME = "ORMLITE_GROUP";
+	private static final String TASK_SAVE_POINT_NAME = "ORMLITE_TASK";
+
+	private final ConnectionSource connectionSource;
+	private final int maxGroupSize;
+	private final long maxGroupDelayNanos;
+	private final Queue<WriteTask<?>> taskQueue = new ConcurrentLinkedQueue<WriteTask<?>>();
+	private final List<WriteTask<?>> group = new ArrayList<WriteTask<?>>();
+	private volatile Thread writerThread;
+	private volatile boolean shutdown;
+
+	public GroupCommitWriteQueue(ConnectionSource connectionSource) {
+		this(connectionSource, DEFAULT_MAX_GROUP_SIZE, DEFAULT_MAX_GROUP_DELAY_MILLIS);
+	}
+
+	/**
+	 * @param connectionSource
+	 *            Source of the read-write connection that the tasks are run on.
+	 * @param maxGroupSize
+	 *            Maximum number of tasks that are committed in one transaction.
+	 * @param maxGroupDelayMillis
+	 *            Maximum number of milliseconds that the writer waits after the first task of a group arrives for other
+	 *            tasks to join the group. Set to 0 to commit whatever is pending without waiting.
+	 */
+	public GroupCommitWriteQueue(ConnectionSource connectionSource, int maxGroupSize, long maxGroupDelayMillis) {
+		if (maxGroupSize <= 0) {
+			throw new IllegalArgumentException("Maximum group size must be positive: " + maxGroupSize);
+		}
+		this.connectionSource = connectionSource;
+		this.maxGroupSize = maxGroupSize;
+		this.maxGroupDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxGroupDelayMillis);
+	}
+
+	/**
+	 * Add a write task to the queue. The returned future completes with the result of the task after the group that it
+	 * was part of has been committed or with the exception thrown by the task or the commit.
+	 */
+	public <T> Future<T> submit(Callable<T> task) {
+		if (shutdown) {
+			throw new IllegalStateException("Write queue has been shut down");
+		}
+		WriteTask<T> writeTask = new WriteTask<T>(task);
+		// lock-free multi-producer queue, only the writer thread polls it
+		taskQueue.offer(writeTask);
+		/*
+		 * If we were shut down while adding the task then the writer may already have seen an empty queue and exited.
+		 * Only one of the remove here or the writer's poll can get the task so it is either run or rejected.
+		 */
+		if (shutdown && taskQueue.remove(writeTask)) {
+			throw new IllegalStateException("Write queue has been shut down");
+		}
+		Thread thread = writerThread;
+		if (thread == null) {
+			thread = startWriter();
+		}
+		LockSupport.unpark(thread);
+		return writeTask;
+	}
+
+	/**
+	 * Stop accepting tasks. The tasks that are already queued will still be run and then the writer thread will exit.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		Thread thread = writerThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	private synchronized Thread startWriter() {
+		if (writerThread == null) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					runWriter();
+				}
+			}, getClass().getSimpleName());
+			thread.setDaemon(true);
+			writerThread = thread;
+			thread.start();
+		}
+		return writerThread;
+	}
+
+	private void runWriter() {
+		try {
+			writeGroups();
+		} finally {
+			writerExited();
+		}
+		logger.trace("{}: writer thread exiting", this);
+	}
+
+	private void writeGroups() {
+		while (true) {
+			WriteTask<?> first = taskQueue.poll();
+			if (first == null) {
+				if (shutdown) {
+					break;
+				}
+				LockSupport.park(this);
+				continue;
+			}
+			group.add(first);
+			// give other tasks a chance to join the group
+			long deadline = System.nanoTime() + maxGroupDelayNanos;
+			while (group.size() < maxGroupSize) {
+				WriteTask<?> task = taskQueue.poll();
+				if (task != null) {
+					group.add(task);
+					continue;
+				}
+				long remainingNanos = deadline - System.nanoTime();
+				if (remainingNanos <= 0 || shutdown) {
+					break;
+				}
+				LockSupport.parkNanos(this, remainingNanos);
+			}
+			runGroup(group);
+			group.clear();
+		}
+	}
+
+	/**
+	 * Called when the writer thread exits. Normally this is after a shutdown but if the thread died then the futures of
+	 * its group are failed and another writer is started for any tasks that are still queued.
+	 */
+	private synchronized void writerExited() {
+		if (writerThread == Thread.currentThread()) {
+			writerThread = null;
+		}
+		if (!group.isEmpty()) {
+			IllegalStateException e = new IllegalStateException("Writer thread died while running the group");
+			for (WriteTask<?> task : group) {
+				task.fail(e);
+			}
+			group.clear();
+		}
+		if (!taskQueue.isEmpty()) {
+			if (shutdown) {
+				IllegalStateException e = new IllegalStateException("Write queue has been shut down");
+				WriteTask<?> task;
+				while ((task = taskQueue.poll()) != null) {
+					task.fail(e);
+				}
+			} else {
+				startWriter();
+			}
+		}
+	}
+
+	private void runGroup(List<WriteTask<?>> tasks) {
+		DatabaseConnection connection = null;
+		boolean saved = false;
+		Savepoint groupSavePoint = null;
+		try {
+			connection = connectionSource.getReadWriteConnection(null);
+			saved = connectionSource.saveSpecialConnection(connection);
+			groupSavePoint = connection.setSavePoint(GROUP_SAVE_POINT_NAME);
+			int succeeded = 0;
+			for (WriteTask<?> task : tasks) {
+				if (task.isCancelled()) {
+					continue;
+				}
+				if (runTask(connection, task)) {
+					succeeded++;
+				}
+			}
+			connection.commit(groupSavePoint);
+			groupSavePoint = null;
+			logger.trace("{}: committed group of {} tasks, {} succeeded", this, tasks.size(), succeeded);
+			for (WriteTask<?> task : tasks) {
+				task.complete();
+			}
+		} catch (Exception e) {
+			// this may be an android.database.SQLException or other runtime exception from the connection
+			logger.error(e, "{}: group of {} tasks failed", this, tasks.size());
+			rollbackGroup(connection, groupSavePoint);
+			groupSavePoint = null;
+			for (WriteTask<?> task : tasks) {
+				task.fail(e);
+			}
+		} finally {
+			if (groupSavePoint != null) {
+				// an Error is on its way up so don't leave the group transaction open on the connection
+				rollbackGroup(connection, groupSavePoint);
+			}
+			if (connection != null) {
+				if (saved) {
+					connectionSource.clearSpecialConnection(connection);
+				}
+				try {
+					connectionSource.releaseConnection(connection);
+				} catch (SQLException e) {
+					logger.error(e, "{}: could not release connection", this);
+				}
+			}
+		}
+	}
+
+	private void rollbackGroup(DatabaseConnection connection, Savepoint groupSavePoint) {
+		if (groupSavePoint == null) {
+			return;
+		}
+		try {
+			connection.rollback(groupSavePoint);
+		} catch (Exception e) {
+			logger.error(e, "{}: could not roll back group transaction", this);
+		}
+	}
+
+	/**
+	 * Run the task inside of its own save-point so that if it fails only its changes are rolled back. If the task throws
+	 * an Error then its changes are rolled back and the Error is re-thrown which rolls back the group and ends the writer
+	 * thread.
+	 * 
+	 * @return True if the task succeeded.
+	 */
+	private boolean runTask(DatabaseConnection connection, WriteTask<?> task) throws SQLException {
+		// we are inside of the group transaction so this is a nested save-point
+		Savepoint taskSavePoint = connection.setSavePoint(TASK_SAVE_POINT_NAME);
+		try {
+			task.call();
+		} catch (Throwable th) {
+			connection.rollback(taskSavePoint);
+			task.fail(th);
+			if (th instanceof Error) {
+				throw (Error) th;
+			}
+			return false;
+		}
+		connection.releaseSavePoint(taskSavePoint);
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "@" + Integer.toHexString(super.hashCode());
+	}
+
+	/**
+	 * Future of a submitted task. It is completed by the writer thread after the task's group is committed.
+	 */
+	private static class WriteTask<T> extends FutureTask<T> {
+
+		private final Callable<T> callable;
+		private T result;
+
+		public WriteTask(Callable<T> callable) {
+			super(callable);
+			this.callable = callable;
+		}
+
+		public void call() throws Exception {
+			result = callable.call();
+		}
+
+		public void complete() {
+			// this does nothing if the task already failed or was cancelled
+			set(result);
+		}
+
+		public void fail(Throwable throwable) {
+			setException(throwable);
+		}
+	}
+}
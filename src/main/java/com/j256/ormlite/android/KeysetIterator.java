@@ -0,0 +1,356 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.CloseableIterator;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.db.SqliteAndroidDatabaseType;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.misc.IOUtils;
+import com.j256.ormlite.stmt.GenericRowMapper;
+import com.j256.ormlite.stmt.StatementBuilder.StatementType;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import com.j256.ormlite.table.TableInfo;
+
+import android.database.Cursor;
+import android.os.Build;
+
+/**
+ * Iterator which walks through a large table a page at a time using keyset pagination. Instead of holding one cursor
+ * open across the whole table, which causes Android to re-run the query with an ever growing offset every time it
+ * refills the cursor window, each page is fetched with its own query:
+ * 
+ * <pre>
+ * SELECT * FROM table WHERE key &gt; ? ORDER BY key LIMIT page-size
+ * </pre>
+ * 
+ * <p>
+ * The cursor is closed and the connection released before the rows of the page are returned so the cost per page stays
+ * flat however deep into the table we are. The key columns must be non-null, cannot be blobs, and together must be
+ * unique. They should be indexed, typically the id column.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> This iterator only moves forward. {@link #getRawResults()} returns null because the results of each page
+ * are closed once the page is read.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class KeysetIterator<T> implements CloseableIterator<T> {
+
+	private static Logger logger = LoggerFactory.getLogger(KeysetIterator.class);
+	private static final SqliteAndroidDatabaseType databaseType = new SqliteAndroidDatabaseType();
+	private static final FieldType[] noFieldTypes = new FieldType[0];
+
+	private final Dao<T, ?> dao;
+	private final ConnectionSource connectionSource;
+	private final String tableName;
+	private final String[] keyColumns;
+	private final int pageSize;
+	private final GenericRowMapper<T> rowMapper;
+	private final String firstPageSql;
+	private final String nextPageSql;
+	private final List<T> page;
+
+	private int pagePosition;
+	private Object[] lastKeyValues;
+	private SqlType[] lastKeySqlTypes;
+	private boolean lastPage;
+	private boolean closed;
+	private T last;
+
+	/**
+	 * @param dao
+	 *            DAO for the table we are iterating across.
+	 * @param pageSize
+	 *            Number of rows fetched in each page.
+	 * @param keyColumns
+	 *            Names of the columns that make up the sort key, most significant first.
+	 */
+	public KeysetIterator(Dao<T, ?> dao, int pageSize, String... keyColumns) throws SQLException {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+		}
+		if (keyColumns.length == 0) {
+			throw new IllegalArgumentException("Need at least one key column");
+		}
+		if (dao instanceof BaseDaoImpl) {
+			TableInfo<T, ?> tableInfo = ((BaseDaoImpl<T, ?>) dao).getTableInfo();
+			for (String keyColumn : keyColumns) {
+				SqlType sqlType = tableInfo.getFieldTypeByColumnName(keyColumn).getSqlType();
+				if (sqlType == SqlType.BYTE_ARRAY || sqlType == SqlType.SERIALIZABLE) {
+					throw new IllegalArgumentException(
+							"Key column " + keyColumn + " in " + dao.getTableName() + " cannot be a blob");
+				}
+			}
+		}
+		this.dao = dao;
+		this.connectionSource = dao.getConnectionSource();
+		this.tableName = dao.getTableName();
+		this.keyColumns = keyColumns;
+		this.pageSize = pageSize;
+		this.rowMapper = dao.getSelectStarRowMapper();
+		this.firstPageSql = buildSql(false);
+		this.nextPageSql = buildSql(true);
+		this.page = new ArrayList<T>(pageSize);
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			return hasNextThrow();
+		} catch (SQLException e) {
+			last = null;
+			closeQuietly();
+			// unfortunately, can't propagate back the SQLException
+			throw new IllegalStateException("Errors getting more results of " + tableName, e);
+		}
+	}
+
+	@Override
+	public T next() {
+		try {
+			return nextThrow();
+		} catch (SQLException e) {
+			last = null;
+			closeQuietly();
+			// unfortunately, can't propagate back the SQLException
+			throw new IllegalStateException("Could not get next result for " + tableName, e);
+		}
+	}
+
+	@Override
+	public T nextThrow() throws SQLException {
+		if (!hasNextThrow()) {
+			last = null;
+			return null;
+		}
+		last = page.get(pagePosition++);
+		return last;
+	}
+
+	@Override
+	public void moveToNext() {
+		next();
+	}
+
+	@Override
+	public T first() throws SQLException {
+		if (closed) {
+			return null;
+		}
+		lastKeyValues = null;
+		lastKeySqlTypes = null;
+		lastPage = false;
+		page.clear();
+		pagePosition = 0;
+		return nextThrow();
+	}
+
+	@Override
+	public T current() {
+		return last;
+	}
+
+	@Override
+	public T previous() {
+		throw new UnsupportedOperationException("Keyset iterator can only move forward");
+	}
+
+	@Override
+	public T moveRelative(int offset) {
+		throw new UnsupportedOperationException("Keyset iterator can only move forward");
+	}
+
+	@Override
+	public T moveAbsolute(int position) {
+		throw new UnsupportedOperationException("Keyset iterator can only move forward");
+	}
+
+	@Override
+	public void remove() {
+		if (last == null) {
+			throw new IllegalStateException(
+					"No last " + tableName + " object to remove. Must be called after a call to next.");
+		}
+		try {
+			dao.delete(last);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not delete " + tableName + " object " + last, e);
+		} finally {
+			last = null;
+		}
+	}
+
+	@Override
+	public DatabaseResults getRawResults() {
+		return null;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		page.clear();
+		pagePosition = 0;
+	}
+
+	@Override
+	public void closeQuietly() {
+		close();
+	}
+
+	private boolean hasNextThrow() throws SQLException {
+		if (closed) {
+			return false;
+		}
+		if (pagePosition < page.size()) {
+			return true;
+		}
+		if (lastPage) {
+			close();
+			return false;
+		}
+		fetchPage();
+		if (page.isEmpty()) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	private void fetchPage() throws SQLException {
+		page.clear();
+		pagePosition = 0;
+		DatabaseConnection connection = connectionSource.getReadOnlyConnection(tableName);
+		CompiledStatement stmt = null;
+		DatabaseResults results = null;
+		try {
+			if (lastKeyValues == null) {
+				stmt = connection.compileStatement(firstPageSql, StatementType.SELECT, noFieldTypes,
+						DatabaseConnection.DEFAULT_RESULT_FLAGS, false);
+			} else {
+				stmt = connection.compileStatement(nextPageSql, StatementType.SELECT, noFieldTypes,
+						DatabaseConnection.DEFAULT_RESULT_FLAGS, false);
+				bindLastKey(stmt);
+			}
+			results = stmt.runQuery(null);
+			for (boolean ok = results.first(); ok; ok = results.next()) {
+				page.add(rowMapper.mapRow(results));
+			}
+			if (page.size() < pageSize) {
+				lastPage = true;
+			} else if (results.last()) {
+				readLastKey(results);
+			}
+		} finally {
+			IOUtils.closeQuietly(results);
+			IOUtils.closeQuietly(stmt);
+			connectionSource.releaseConnection(connection);
+		}
+		logger.trace("{}: fetched page of {} rows from {}", this, page.size(), tableName);
+	}
+
+	/**
+	 * Read the key values from the last row of the page so we can start the next page after them.
+	 */
+	private void readLastKey(DatabaseResults results) throws SQLException {
+		if (lastKeyValues == null) {
+			lastKeyValues = new Object[keyColumns.length];
+			lastKeySqlTypes = new SqlType[keyColumns.length];
+		}
+		Cursor cursor = null;
+		// the column types are only available from the cursor in later versions of Android
+		if (results instanceof AndroidDatabaseResults && Build.VERSION.SDK_INT >= 11) { // Build.VERSION_CODES.HONEYCOMB
+			cursor = ((AndroidDatabaseResults) results).getRawCursor();
+		}
+		for (int i = 0; i < keyColumns.length; i++) {
+			int columnIndex = results.findColumn(keyColumns[i]);
+			if (results.wasNull(columnIndex)) {
+				throw new SQLException("Key column " + keyColumns[i] + " in " + tableName + " cannot be null");
+			}
+			if (cursor == null) {
+				lastKeyValues[i] = results.getString(columnIndex);
+				lastKeySqlTypes[i] = SqlType.STRING;
+				continue;
+			}
+			switch (cursor.getType(columnIndex)) {
+				case Cursor.FIELD_TYPE_INTEGER:
+					lastKeyValues[i] = cursor.getLong(columnIndex);
+					lastKeySqlTypes[i] = SqlType.LONG;
+					break;
+				case Cursor.FIELD_TYPE_FLOAT:
+					lastKeyValues[i] = cursor.getDouble(columnIndex);
+					lastKeySqlTypes[i] = SqlType.DOUBLE;
+					break;
+				case Cursor.FIELD_TYPE_BLOB:
+					// these can't be bound as the string arguments that are used without typed query arguments
+					throw new SQLException("Key column " + keyColumns[i] + " in " + tableName + " cannot be a blob");
+				case Cursor.FIELD_TYPE_STRING:
+				default:
+					lastKeyValues[i] = cursor.getString(columnIndex);
+					lastKeySqlTypes[i] = SqlType.STRING;
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Bind the key arguments in the same order as the where clause generated by {@link #buildSql(boolean)}.
+	 */
+	private void bindLastKey(CompiledStatement stmt) throws SQLException {
+		int argC = 0;
+		for (int i = 0; i < keyColumns.length; i++) {
+			for (int j = 0; j <= i; j++) {
+				stmt.setObject(argC++, lastKeyValues[j], lastKeySqlTypes[j]);
+			}
+		}
+	}
+
+	/**
+	 * Build the page query. For keys (a, b) the where clause is: a &gt; ? OR (a = ? AND b &gt; ?)
+	 */
+	private String buildSql(boolean afterKey) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("SELECT * FROM ");
+		databaseType.appendEscapedEntityName(sb, tableName);
+		if (afterKey) {
+			sb.append(" WHERE ");
+			for (int i = 0; i < keyColumns.length; i++) {
+				if (i > 0) {
+					sb.append(" OR ");
+				}
+				sb.append('(');
+				for (int j = 0; j < i; j++) {
+					databaseType.appendEscapedEntityName(sb, keyColumns[j]);
+					sb.append(" = ? AND ");
+				}
+				databaseType.appendEscapedEntityName(sb, keyColumns[i]);
+				sb.append(" > ?)");
+			}
+		}
+		sb.append(" ORDER BY ");
+		for (int i = 0; i < keyColumns.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			databaseType.appendEscapedEntityName(sb, keyColumns[i]);
+		}
+		sb.append(" LIMIT ").append(pageSize);
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "@" + Integer.toHexString(super.hashCode());
+	}
+}
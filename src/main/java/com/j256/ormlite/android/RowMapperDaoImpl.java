@@ -0,0 +1,96 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.misc.BaseDaoEnabled;
+import com.j256.ormlite.misc.IOUtils;
+import com.j256.ormlite.stmt.GenericRowMapper;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.stmt.StatementBuilder.StatementType;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+import com.j256.ormlite.table.DatabaseTableConfig;
+
+/**
+ * DAO which maps the results of its queries with the row mapper from the {@link RowMapperRegistry} instead of going
+ * through the field-types of each column. The row mappers are generated by the ormlite-android-processor or are built
+ * at runtime if {@link RowMapperRegistry#setRuntimeRowMappersEnabled(boolean)} is enabled. To use it, set the
+ * daoClass of the entity's table annotation:
+ * 
+ * <pre>
+ * &#64;DatabaseTable(daoClass = RowMapperDaoImpl.class)
+ * public class Account {
+ * </pre>
+ * 
+ * <p>
+ * {@link #query(PreparedQuery)} and {@link #queryForAll()} use the row mapper, as do the query-builder and queryForEq
+ * style methods which go through them. If there is no row mapper for the table-info of the DAO, or if the DAO has an
+ * object-cache or an object-factory, or if the entity extends {@link BaseDaoEnabled}, then the rows are mapped by the
+ * field-types as usual.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class RowMapperDaoImpl<T, ID> extends BaseDaoImpl<T, ID> {
+
+	public RowMapperDaoImpl(ConnectionSource connectionSource, Class<T> dataClass) throws SQLException {
+		super(connectionSource, dataClass);
+	}
+
+	public RowMapperDaoImpl(ConnectionSource connectionSource, DatabaseTableConfig<T> tableConfig)
+			throws SQLException {
+		super(connectionSource, tableConfig);
+	}
+
+	@Override
+	public List<T> query(PreparedQuery<T> preparedQuery) throws SQLException {
+		GenericRowMapper<T> rowMapper = getRowMapper();
+		if (rowMapper == null) {
+			return super.query(preparedQuery);
+		}
+		DatabaseConnection connection = connectionSource.getReadOnlyConnection(getTableName());
+		CompiledStatement compiledStatement = null;
+		DatabaseResults results = null;
+		try {
+			compiledStatement = preparedQuery.compile(connection, StatementType.SELECT);
+			results = compiledStatement.runQuery(null);
+			List<T> list = new ArrayList<T>();
+			for (boolean ok = results.first(); ok; ok = results.next()) {
+				list.add(rowMapper.mapRow(results));
+			}
+			return list;
+		} finally {
+			IOUtils.closeQuietly(results);
+			IOUtils.closeQuietly(compiledStatement);
+			connectionSource.releaseConnection(connection);
+		}
+	}
+
+	@Override
+	public List<T> queryForAll() throws SQLException {
+		if (getRowMapper() == null) {
+			return super.queryForAll();
+		} else {
+			return query(queryBuilder().prepare());
+		}
+	}
+
+	/**
+	 * Return the row mapper for the table-info of this DAO or null if the rows need to be mapped by the field-types.
+	 * This is also used by {@link com.j256.ormlite.android.apptools.OrmLiteCursorAdapter} to map the rows of its
+	 * cursor.
+	 */
+	public GenericRowMapper<T> getRowMapper() {
+		// the row mappers don't know about the object-cache, the object-factory, or setting the DAO on the objects
+		if (getObjectCache() != null || objectFactory != null
+				|| BaseDaoEnabled.class.isAssignableFrom(getDataClass())) {
+			return null;
+		}
+		return RowMapperRegistry.getRowMapper(getTableInfo());
+	}
+}
@@ -0,0 +1,18 @@
+package com.j256.ormlite.android;
+
+import com.j256.ormlite.table.TableInfo;
+
+/**
+ * Source of row mappers which is consulted by {@link RowMapperRegistry#getRowMapper(TableInfo)}. Providers are
+ * registered with {@link RowMapperRegistry#addRowMapperProvider(RowMapperProvider)}.
+ * 
+ * @author graywatson
+ */
+public interface RowMapperProvider {
+
+	/**
+	 * Return a mapper which converts the rows of the class' table into objects or null if this provider doesn't know
+	 * about it. The mapper must be safe to use from multiple threads.
+	 */
+	public <T> DirectRowMapper<T> getRowMapper(Class<T> clazz);
+}
@@ -0,0 +1,249 @@
+package com.j256.ormlite.android;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.j256.ormlite.field.DataPersisterManager;
+import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.stmt.GenericRowMapper;
+import com.j256.ormlite.support.DatabaseResults;
+import com.j256.ormlite.table.TableInfo;
+
+/**
+ * Registry of the row mappers that map results directly into objects without going through the reflection based
+ * field-types. The registries generated by the ormlite-android-processor annotation processor are registered
+ * automatically with the ServiceLoader if they are on the classpath. For classes that none of the providers know
+ * about, a row mapper can be built at runtime if the fields are simple enough. See
+ * {@link #setRuntimeRowMappersEnabled(boolean)}. The mappers are used by the queries of {@link RowMapperDaoImpl}.
+ * 
+ * <p>
+ * The mappers are built from the annotations of the class but a DAO may be using a different table configuration, such
+ * as one from a config file or one that was built by hand. {@link #getRowMapper(TableInfo)} only returns a mapper if
+ * it sets the same fields from the same columns with the default persisters as the table-info so the results are the
+ * same as from the field-types.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> Row mappers create the objects with their no-argument constructor and don't use the object-cache or
+ * the object-factory of the DAO.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class RowMapperRegistry {
+
+	private static Logger logger = LoggerFactory.getLogger(RowMapperRegistry.class);
+	private static final List<RowMapperProvider> rowMapperProviders = new CopyOnWriteArrayList<RowMapperProvider>();
+	private static final Map<Class<?>, DirectRowMapper<?>> rowMapperMap =
+			new ConcurrentHashMap<Class<?>, DirectRowMapper<?>>();
+	/**
+	 * Table-info -> validated row mapper. The table-infos are weak keys so they go away with their DAOs.
+	 */
+	private static final Map<TableInfo<?, ?>, DirectRowMapper<?>> tableRowMapperMap =
+			Collections.synchronizedMap(new WeakHashMap<TableInfo<?, ?>, DirectRowMapper<?>>());
+	/**
+	 * The field-type's config which is the only place that the throwIfNull setting is kept. Null if it can't be found
+	 * in which case no mappers are used.
+	 */
+	private static final Field fieldTypeConfigField = findFieldTypeConfigField();
+	private static volatile boolean runtimeRowMappersEnabled = false;
+	/**
+	 * Stored in the maps for classes that have no row mapper since the maps don't allow null values.
+	 */
+	private static final DirectRowMapper<Object> NO_ROW_MAPPER = new DirectRowMapper<Object>() {
+		@Override
+		public Object mapRow(DatabaseResults results) {
+			throw new IllegalStateException("should not be called");
+		}
+
+		@Override
+		public String[] getFieldNames() {
+			return new String[0];
+		}
+
+		@Override
+		public String[] getColumnNames() {
+			return new String[0];
+		}
+	};
+
+	static {
+		loadGeneratedRegistries();
+	}
+
+	/**
+	 * Return the row mapper for the class of the table-info or null if none of the registered providers know about it
+	 * or if its mapping doesn't agree with the field-types of the table-info.
+	 */
+	public static <T> GenericRowMapper<T> getRowMapper(TableInfo<T, ?> tableInfo) {
+		DirectRowMapper<?> rowMapper = tableRowMapperMap.get(tableInfo);
+		if (rowMapper == null) {
+			rowMapper = getClassRowMapper(tableInfo.getDataClass());
+			if (rowMapper != NO_ROW_MAPPER && !matchesTableInfo(rowMapper, tableInfo)) {
+				logger.debug("row mapper {} does not match the table config of {}, using the field-types",
+						rowMapper.getClass().getName(), tableInfo.getDataClass());
+				rowMapper = NO_ROW_MAPPER;
+			}
+			tableRowMapperMap.put(tableInfo, rowMapper);
+		}
+		if (rowMapper == NO_ROW_MAPPER) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		GenericRowMapper<T> castRowMapper = (GenericRowMapper<T>) rowMapper;
+		return castRowMapper;
+	}
+
+	/**
+	 * Register a provider which is asked for row mappers.
+	 */
+	public static void addRowMapperProvider(RowMapperProvider provider) {
+		rowMapperProviders.add(provider);
+		// classes that had no mapper before may have one now
+		clearRowMappers();
+	}
+
+	/**
+	 * Remove a provider that was registered with {@link #addRowMapperProvider(RowMapperProvider)}.
+	 */
+	public static void removeRowMapperProvider(RowMapperProvider provider) {
+		rowMapperProviders.remove(provider);
+		clearRowMappers();
+	}
+
+	/**
+	 * Set to true to build row mappers at runtime for the classes that the providers don't know about. Default is
+	 * false. The runtime row mappers set the fields with reflection which saves the per-column work of the field-types
+	 * but they are built from the annotations of the class so they are only used when they agree with the table-info.
+	 */
+	public static void setRuntimeRowMappersEnabled(boolean runtimeRowMappersEnabled) {
+		RowMapperRegistry.runtimeRowMappersEnabled = runtimeRowMappersEnabled;
+		clearRowMappers();
+	}
+
+	private static void clearRowMappers() {
+		rowMapperMap.clear();
+		tableRowMapperMap.clear();
+	}
+
+	private static DirectRowMapper<?> getClassRowMapper(Class<?> clazz) {
+		DirectRowMapper<?> rowMapper = rowMapperMap.get(clazz);
+		if (rowMapper == null) {
+			rowMapper = findRowMapper(clazz);
+			rowMapperMap.put(clazz, rowMapper);
+		}
+		return rowMapper;
+	}
+
+	private static DirectRowMapper<?> findRowMapper(Class<?> clazz) {
+		for (RowMapperProvider provider : rowMapperProviders) {
+			DirectRowMapper<?> rowMapper = provider.getRowMapper(clazz);
+			if (rowMapper != null) {
+				logger.trace("using row mapper {} for {}", rowMapper.getClass().getName(), clazz);
+				return rowMapper;
+			}
+		}
+		if (runtimeRowMappersEnabled) {
+			DirectRowMapper<?> rowMapper = RuntimeRowMapper.forClass(clazz);
+			if (rowMapper != null) {
+				logger.trace("using runtime row mapper for {}", clazz);
+				return rowMapper;
+			}
+		}
+		return NO_ROW_MAPPER;
+	}
+
+	/**
+	 * Return true if the row mapper sets the same fields from the same columns as the field-types of the table-info
+	 * and the field-types convert the values with the default persisters and don't throw on null values which is what
+	 * the mappers do.
+	 */
+	private static boolean matchesTableInfo(DirectRowMapper<?> rowMapper, TableInfo<?, ?> tableInfo) {
+		String[] fieldNames = rowMapper.getFieldNames();
+		String[] columnNames = rowMapper.getColumnNames();
+		FieldType[] fieldTypes = tableInfo.getFieldTypes();
+		if (fieldNames.length != fieldTypes.length || columnNames.length != fieldNames.length) {
+			return false;
+		}
+		Map<String, String> fieldColumnMap = new HashMap<String, String>(fieldNames.length * 2);
+		for (int i = 0; i < fieldNames.length; i++) {
+			fieldColumnMap.put(fieldNames[i], columnNames[i]);
+		}
+		for (FieldType fieldType : fieldTypes) {
+			if (fieldType.isForeign() || fieldType.isForeignCollection() || fieldType.getFormat() != null
+					|| !fieldType.getColumnName().equals(fieldColumnMap.get(fieldType.getFieldName()))
+					|| fieldType.getDataPersister() != DataPersisterManager.lookupForField(fieldType.getField())
+					|| isThrowIfNull(fieldType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return true if the field-type throws on null values or if we can't tell.
+	 */
+	private static boolean isThrowIfNull(FieldType fieldType) {
+		if (fieldTypeConfigField == null) {
+			return true;
+		}
+		try {
+			DatabaseFieldConfig fieldConfig = (DatabaseFieldConfig) fieldTypeConfigField.get(fieldType);
+			return (fieldConfig == null || fieldConfig.isThrowIfNull());
+		} catch (Exception e) {
+			logger.warn(e, "could not get the field config of {}", fieldType);
+			return true;
+		}
+	}
+
+	private static Field findFieldTypeConfigField() {
+		for (Field field : FieldType.class.getDeclaredFields()) {
+			if (field.getType() == DatabaseFieldConfig.class) {
+				try {
+					field.setAccessible(true);
+					return field;
+				} catch (Exception e) {
+					logger.warn(e, "could not access the field config of the field-types, not using row mappers");
+					return null;
+				}
+			}
+		}
+		logger.warn("could not find the field config of the field-types, not using row mappers");
+		return null;
+	}
+
+	/**
+	 * Load the registries of row mappers that were generated at compile time by the annotation processor. They are
+	 * listed in the META-INF/services/com.j256.ormlite.android.RowMapperProvider files which the processor writes for
+	 * each module.
+	 */
+	private static void loadGeneratedRegistries() {
+		Iterator<RowMapperProvider> iterator =
+				ServiceLoader.load(RowMapperProvider.class, RowMapperProvider.class.getClassLoader()).iterator();
+		while (true) {
+			try {
+				if (!iterator.hasNext()) {
+					break;
+				}
+				RowMapperProvider registry = iterator.next();
+				rowMapperProviders.add(registry);
+				logger.debug("loaded generated row mapper registry {}", registry.getClass().getName());
+			} catch (ServiceConfigurationError e) {
+				// the iterator moves on to the next provider after an error
+				logger.warn(e, "could not load generated row mapper registry");
+			}
+		}
+	}
+}
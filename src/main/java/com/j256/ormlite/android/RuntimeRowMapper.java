@@ -0,0 +1,323 @@
+package com.j256.ormlite.android;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.field.types.VoidType;
+import com.j256.ormlite.support.DatabaseResults;
+
+/**
+ * Row mapper which is built at runtime for entities that don't have a row mapper generated by the
+ * ormlite-android-processor. The fields are set with reflection and are looked up once when the mapper is built. Like
+ * the generated mappers, this only handles entities whose persisted fields are primitives, their wrappers, strings, or
+ * enums stored by name.
+ * 
+ * @author graywatson
+ */
+class RuntimeRowMapper<T> implements DirectRowMapper<T> {
+
+	private static final String JAVAX_PERSISTENCE_PACKAGE = "javax.persistence.";
+
+	private final Constructor<T> constructor;
+	private final String[] fieldNames;
+	private final String[] columnNames;
+	private final MappedField[] mappedFields;
+	private volatile ColumnLayout lastLayout;
+
+	private RuntimeRowMapper(Constructor<T> constructor, List<MappedField> mappedFieldList) {
+		this.constructor = constructor;
+		this.mappedFields = mappedFieldList.toArray(new MappedField[mappedFieldList.size()]);
+		this.fieldNames = new String[mappedFields.length];
+		this.columnNames = new String[mappedFields.length];
+		for (int i = 0; i < mappedFields.length; i++) {
+			fieldNames[i] = mappedFields[i].fieldName;
+			columnNames[i] = mappedFields[i].columnName;
+		}
+	}
+
+	/**
+	 * Build a row mapper for the class or return null if it has fields that can't be mapped directly.
+	 */
+	public static <T> RuntimeRowMapper<T> forClass(Class<T> clazz) {
+		if (Modifier.isAbstract(clazz.getModifiers())
+				|| (clazz.getEnclosingClass() != null && !Modifier.isStatic(clazz.getModifiers()))) {
+			return null;
+		}
+		Constructor<T> constructor;
+		try {
+			constructor = clazz.getDeclaredConstructor();
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+		if (!constructor.isAccessible()) {
+			constructor.setAccessible(true);
+		}
+		List<MappedField> mappedFields = new ArrayList<MappedField>();
+		// walk up the classes like DatabaseTableConfigUtil.fromClass()
+		for (Class<?> classWalk = clazz; classWalk != null; classWalk = classWalk.getSuperclass()) {
+			for (Field field : classWalk.getDeclaredFields()) {
+				if (!addMappedField(mappedFields, field)) {
+					return null;
+				}
+			}
+		}
+		if (mappedFields.isEmpty()) {
+			return null;
+		}
+		return new RuntimeRowMapper<T>(constructor, mappedFields);
+	}
+
+	@Override
+	public T mapRow(DatabaseResults results) throws SQLException {
+		int[] columns = findColumns(results);
+		T data;
+		try {
+			data = constructor.newInstance();
+		} catch (Exception e) {
+			throw new SQLException("Could not construct instance of " + constructor.getDeclaringClass(), e);
+		}
+		for (int i = 0; i < mappedFields.length; i++) {
+			int column = columns[i];
+			if (column < 0) {
+				continue;
+			}
+			MappedField mappedField = mappedFields[i];
+			if (results.wasNull(column)) {
+				// like the field-types, null values leave primitive fields alone since throwIfNull fields aren't mapped
+				if (!mappedField.primitive) {
+					mappedField.set(data, null);
+				}
+			} else {
+				mappedField.set(data, mappedField.readValue(results, column));
+			}
+		}
+		return data;
+	}
+
+	@Override
+	public String[] getFieldNames() {
+		return fieldNames.clone();
+	}
+
+	@Override
+	public String[] getColumnNames() {
+		return columnNames.clone();
+	}
+
+	/**
+	 * Return the column index of each field or -1 if it is not in the results. These are cached by the layout of the
+	 * results so they are usually only looked up once per query.
+	 */
+	private int[] findColumns(DatabaseResults results) {
+		Object layoutKey = null;
+		if (results instanceof AndroidDatabaseResults) {
+			layoutKey = ((AndroidDatabaseResults) results).getColumnLayout();
+			ColumnLayout layout = lastLayout;
+			if (layout != null && layout.key == layoutKey) {
+				return layout.columns;
+			}
+		}
+		int[] columns = new int[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++) {
+			try {
+				columns[i] = results.findColumn(columnNames[i]);
+			} catch (SQLException e) {
+				// the field was not selected
+				columns[i] = -1;
+			}
+		}
+		if (layoutKey != null) {
+			lastLayout = new ColumnLayout(layoutKey, columns);
+		}
+		return columns;
+	}
+
+	/**
+	 * Add the field to the list if it is persisted.
+	 * 
+	 * @return False if the field is persisted but can't be mapped directly.
+	 */
+	private static boolean addMappedField(List<MappedField> mappedFields, Field field) {
+		if (field.getAnnotation(ForeignCollectionField.class) != null) {
+			// foreign collections need a DAO
+			return false;
+		}
+		DatabaseField databaseField = field.getAnnotation(DatabaseField.class);
+		if (databaseField == null) {
+			for (Annotation annotation : field.getAnnotations()) {
+				if (annotation.annotationType().getName().startsWith(JAVAX_PERSISTENCE_PACKAGE)) {
+					// leave the javax.persistence annotations to the field-types
+					return false;
+				}
+			}
+			return true;
+		}
+		if (!databaseField.persisted()) {
+			return true;
+		}
+		// these change how the value is converted or need other objects to be looked up
+		if (databaseField.dataType() != DataType.UNKNOWN || databaseField.persisterClass() != VoidType.class
+				|| databaseField.format().length() > 0 || databaseField.foreign() || databaseField.useGetSet()
+				// the field-types throw on null values for these
+				|| databaseField.throwIfNull() || Modifier.isFinal(field.getModifiers()) || Modifier.isStatic(field.getModifiers())) {
+			return false;
+		}
+		ColumnKind kind = ColumnKind.forType(field.getType());
+		if (kind == null) {
+			return false;
+		}
+		Enum<?> unknownEnumValue = null;
+		Map<String, Enum<?>> enumNameMap = null;
+		if (kind == ColumnKind.ENUM) {
+			enumNameMap = new HashMap<String, Enum<?>>();
+			for (Object constant : field.getType().getEnumConstants()) {
+				Enum<?> enumValue = (Enum<?>) constant;
+				enumNameMap.put(enumValue.name(), enumValue);
+			}
+			if (databaseField.unknownEnumName().length() > 0) {
+				unknownEnumValue = enumNameMap.get(databaseField.unknownEnumName());
+				if (unknownEnumValue == null) {
+					// let the field-types report the problem
+					return false;
+				}
+			}
+		}
+		String columnName = databaseField.columnName();
+		if (columnName.length() == 0) {
+			columnName = field.getName();
+		}
+		if (!field.isAccessible()) {
+			field.setAccessible(true);
+		}
+		mappedFields.add(new MappedField(field, columnName, kind, enumNameMap, unknownEnumValue));
+		return true;
+	}
+
+	/**
+	 * How a column is read from the results.
+	 */
+	private enum ColumnKind {
+		BOOLEAN,
+		BYTE,
+		SHORT,
+		INT,
+		LONG,
+		FLOAT,
+		DOUBLE,
+		STRING,
+		ENUM;
+
+		public static ColumnKind forType(Class<?> type) {
+			if (type == boolean.class || type == Boolean.class) {
+				return BOOLEAN;
+			} else if (type == byte.class || type == Byte.class) {
+				return BYTE;
+			} else if (type == short.class || type == Short.class) {
+				return SHORT;
+			} else if (type == int.class || type == Integer.class) {
+				return INT;
+			} else if (type == long.class || type == Long.class) {
+				return LONG;
+			} else if (type == float.class || type == Float.class) {
+				return FLOAT;
+			} else if (type == double.class || type == Double.class) {
+				return DOUBLE;
+			} else if (type == String.class) {
+				return STRING;
+			} else if (type.isEnum()) {
+				return ENUM;
+			} else {
+				// chars are stored differently by the different data types
+				return null;
+			}
+		}
+	}
+
+	private static class MappedField {
+		final Field field;
+		final String fieldName;
+		final String columnName;
+		final boolean primitive;
+		final ColumnKind kind;
+		final Map<String, Enum<?>> enumNameMap;
+		final Enum<?> unknownEnumValue;
+
+		public MappedField(Field field, String columnName, ColumnKind kind, Map<String, Enum<?>> enumNameMap,
+				Enum<?> unknownEnumValue) {
+			this.field = field;
+			this.fieldName = field.getName();
+			this.columnName = columnName;
+			this.primitive = field.getType().isPrimitive();
+			this.kind = kind;
+			this.enumNameMap = enumNameMap;
+			this.unknownEnumValue = unknownEnumValue;
+		}
+
+		/**
+		 * Set the field in the object to the value. Primitive fields are set from their boxed values.
+		 */
+		public void set(Object obj, Object value) throws SQLException {
+			try {
+				field.set(obj, value);
+			} catch (Exception e) {
+				throw new SQLException("Could not set field " + fieldName + " in " + obj.getClass(), e);
+			}
+		}
+
+		public Object readValue(DatabaseResults results, int column) throws SQLException {
+			switch (kind) {
+				case BOOLEAN:
+					return results.getBoolean(column);
+				case BYTE:
+					return results.getByte(column);
+				case SHORT:
+					return results.getShort(column);
+				case INT:
+					return results.getInt(column);
+				case LONG:
+					return results.getLong(column);
+				case FLOAT:
+					return results.getFloat(column);
+				case DOUBLE:
+					return results.getDouble(column);
+				case STRING:
+					return results.getString(column);
+				case ENUM:
+					return toEnum(results.getString(column));
+				default:
+					throw new SQLException("Unknown column kind: " + kind);
+			}
+		}
+
+		private Enum<?> toEnum(String name) throws SQLException {
+			Enum<?> enumValue = enumNameMap.get(name);
+			if (enumValue != null) {
+				return enumValue;
+			} else if (unknownEnumValue != null) {
+				return unknownEnumValue;
+			} else {
+				throw new SQLException("Cannot get enum value of '" + name + "' for field " + columnName);
+			}
+		}
+	}
+
+	private static class ColumnLayout {
+		final Object key;
+		final int[] columns;
+
+		public ColumnLayout(Object key, int[] columns) {
+			this.key = key;
+			this.columns = columns;
+		}
+	}
+}
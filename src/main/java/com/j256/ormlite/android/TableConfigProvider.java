@@ -0,0 +1,22 @@
+package com.j256.ormlite.android;
+
+import java.sql.SQLException;
+
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.table.DatabaseTableConfig;
+
+/**
+ * Source of table configurations which is consulted by
+ * {@link DatabaseTableConfigUtil#fromClass(ConnectionSource, Class)} before the class is processed with reflection.
+ * Providers are registered with {@link DatabaseTableConfigUtil#addTableConfigProvider(TableConfigProvider)}.
+ * 
+ * @author graywatson
+ */
+public interface TableConfigProvider {
+
+	/**
+	 * Return the table configuration for the class or null if this provider doesn't know about it.
+	 */
+	public <T> DatabaseTableConfig<T> getTableConfig(ConnectionSource connectionSource, Class<T> clazz)
+			throws SQLException;
+}
@@ -0,0 +1,37 @@
+package com.j256.ormlite.android;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabase.CursorFactory;
+import android.database.sqlite.SQLiteQuery;
+import android.os.Build;
+
+/**
+ * Cursor factory which binds the query arguments with their native sqlite types. {@link SQLiteDatabase#rawQuery} only
+ * takes String arguments which means that numbers are compared as text unless sqlite can apply a column affinity to
+ * them. Binding them as longs and doubles means that expressions and untyped columns work as expected and sqlite can
+ * use its indexes.
+ * 
+ * @author graywatson
+ */
+class TypedArgsCursorFactory implements CursorFactory {
+
+	private final Object[] args;
+
+	public TypedArgsCursorFactory(Object[] args) {
+		this.args = args;
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver driver, String editTable, SQLiteQuery query) {
+		AndroidCompiledStatement.bindArgs(query, args);
+		if (Build.VERSION.SDK_INT >= 11) { // Build.VERSION_CODES.HONEYCOMB
+			return new SQLiteCursor(driver, editTable, query);
+		} else {
+			return new SQLiteCursor(db, driver, editTable, query);
+		}
+	}
+}
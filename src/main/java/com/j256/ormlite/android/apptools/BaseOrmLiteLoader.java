@@ -1,9 +1,20 @@
 package com.j256.ormlite.android.apptools;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import com.j256.ormlite.android.AndroidCompiledStatement;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.Dao.DaoObserver;
+import com.j256.ormlite.misc.IOUtils;
+import com.j256.ormlite.stmt.PreparedQuery;
+import com.j256.ormlite.stmt.StatementBuilder.StatementType;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
 
 import android.content.AsyncTaskLoader;
 import android.content.Context;
@@ -21,6 +32,7 @@ public abstract class BaseOrmLiteLoader<T, ID> extends AsyncTaskLoader<List<T>>
 	 */
 	protected Dao<T, ID> dao;
 	private List<T> cachedResults;
+	private volatile AndroidCompiledStatement runningStatement;
 
 	public BaseOrmLiteLoader(Context context) {
 		super(context);
@@ -66,6 +78,16 @@ public abstract class BaseOrmLiteLoader<T, ID> extends AsyncTaskLoader<List<T>>
 	protected void onStopLoading() {
 		// attempt to cancel the current load task if possible.
 		cancelLoad();
+		// older versions of Android don't call cancelLoadInBackground()
+		cancelRunningStatement();
+	}
+
+	/**
+	 * Called by the versions of Android that support canceling a background load. This is not an override because
+	 * versions before JELLY_BEAN (API 16) don't have it.
+	 */
+	public void cancelLoadInBackground() {
+		cancelRunningStatement();
 	}
 
 	@Override
@@ -91,4 +113,53 @@ public abstract class BaseOrmLiteLoader<T, ID> extends AsyncTaskLoader<List<T>>
 	public void setDao(Dao<T, ID> dao) {
 		this.dao = dao;
 	}
+
+	/**
+	 * Run the query in a way that lets the SQL be aborted if the load is canceled while it is running. This should be
+	 * called from {@link #loadInBackground()}.
+	 * 
+	 * @return The results of the query or an empty list if the load was canceled.
+	 */
+	protected List<T> queryCancellably(PreparedQuery<T> preparedQuery) throws SQLException {
+		ConnectionSource connectionSource = dao.getConnectionSource();
+		DatabaseConnection connection = connectionSource.getReadOnlyConnection(dao.getTableName());
+		CompiledStatement compiledStatement = null;
+		AndroidCompiledStatement statement = null;
+		try {
+			compiledStatement = preparedQuery.compile(connection, StatementType.SELECT);
+			if (compiledStatement instanceof AndroidCompiledStatement) {
+				statement = (AndroidCompiledStatement) compiledStatement;
+				statement.setCancelQueriesEnabled(true);
+				runningStatement = statement;
+			}
+			DatabaseResults results = compiledStatement.runQuery(dao.getObjectCache());
+			List<T> list = new ArrayList<T>();
+			if (results.first()) {
+				do {
+					list.add(preparedQuery.mapRow(results));
+				} while (results.next());
+			}
+			return list;
+		} catch (RuntimeException e) {
+			// typically an OperationCanceledException, which is a different class with the support library
+			if (statement != null && statement.isCanceled()) {
+				return Collections.emptyList();
+			}
+			throw e;
+		} finally {
+			runningStatement = null;
+			IOUtils.closeQuietly(compiledStatement);
+			connectionSource.releaseConnection(connection);
+		}
+	}
+
+	/**
+	 * Cancel the query that is running in the background, if any, so that it stops using the database.
+	 */
+	private void cancelRunningStatement() {
+		AndroidCompiledStatement statement = runningStatement;
+		if (statement != null) {
+			statement.cancel();
+		}
+	}
 }
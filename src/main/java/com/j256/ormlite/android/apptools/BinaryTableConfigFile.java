@@ -0,0 +1,239 @@
+package com.j256.ormlite.android.apptools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.j256.ormlite.android.DatabaseTableConfigUtil;
+import com.j256.ormlite.android.TableConfigProvider;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.table.DatabaseTableConfig;
+import com.j256.ormlite.table.DatabaseTableConfigLoader;
+
+/**
+ * Binary table configuration file which is written by {@link OrmLiteConfigUtil} with the "-b" argument. Unlike the text
+ * configuration file, which is parsed and registered all at once when the helper is constructed, this file has an
+ * index of the entity class-names so that only the index is read up front. The configuration of a table is decoded
+ * when its DAO is first created. If the file is loaded from a {@link FileInputStream} then it is memory-mapped.
+ * 
+ * <p>
+ * The file starts with the magic bytes "ORMB" and a version number followed by the number of tables and for each table
+ * its class-name and the offset and length of its section. Each section holds the configuration of one table in the
+ * text format of {@link DatabaseTableConfigLoader} encoded with UTF-8.
+ * </p>
+ * 
+ * <p>
+ * This is a {@link TableConfigProvider} which is registered with
+ * {@link DatabaseTableConfigUtil#addTableConfigProvider(TableConfigProvider)} by {@link OrmLiteSqliteOpenHelper}.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class BinaryTableConfigFile implements TableConfigProvider {
+
+	private static final byte[] MAGIC = new byte[] { 'O', 'R', 'M', 'B' };
+	private static final int VERSION = 1;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final ByteBuffer buffer;
+	private final Map<String, Section> sectionMap;
+
+	private BinaryTableConfigFile(ByteBuffer buffer) throws SQLException {
+		this.buffer = buffer;
+		try {
+			byte[] magic = new byte[MAGIC.length];
+			buffer.get(magic);
+			if (!isMagic(magic)) {
+				throw new SQLException("Binary table config file does not start with the right magic bytes");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new SQLException("Unknown binary table config file version: " + version);
+			}
+			int numTables = buffer.getInt();
+			Map<String, Section> sectionMap = new HashMap<String, Section>(numTables * 2);
+			for (int i = 0; i < numTables; i++) {
+				byte[] nameBytes = new byte[buffer.getInt()];
+				buffer.get(nameBytes);
+				int offset = buffer.getInt();
+				int length = buffer.getInt();
+				sectionMap.put(new String(nameBytes, UTF_8), new Section(offset, length));
+			}
+			// the section offsets are relative to the end of the index
+			int dataStart = buffer.position();
+			for (Section section : sectionMap.values()) {
+				section.offset += dataStart;
+				if (section.offset + section.length > buffer.limit()) {
+					throw new SQLException("Binary table config file is truncated");
+				}
+			}
+			this.sectionMap = sectionMap;
+		} catch (BufferUnderflowException e) {
+			throw new SQLException("Binary table config file is truncated", e);
+		}
+	}
+
+	/**
+	 * Load a binary table configuration file from a stream. If the stream is a {@link FileInputStream} then the file is
+	 * memory-mapped from the stream's current position, otherwise the stream is read fully. The stream is not closed.
+	 */
+	public static BinaryTableConfigFile load(InputStream stream) throws SQLException {
+		try {
+			ByteBuffer buffer;
+			if (stream instanceof FileInputStream) {
+				FileChannel channel = ((FileInputStream) stream).getChannel();
+				long position = channel.position();
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+			} else {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				byte[] bytes = new byte[4096];
+				while (true) {
+					int num = stream.read(bytes);
+					if (num < 0) {
+						break;
+					}
+					output.write(bytes, 0, num);
+				}
+				buffer = ByteBuffer.wrap(output.toByteArray());
+			}
+			return new BinaryTableConfigFile(buffer);
+		} catch (IOException e) {
+			throw new SQLException("Could not read binary table config file", e);
+		}
+	}
+
+	/**
+	 * Return true if the stream is positioned at the start of a binary table configuration file. The stream's position
+	 * is not changed. This returns false if the stream is not a {@link FileInputStream} and doesn't support
+	 * {@link InputStream#mark(int)}.
+	 */
+	public static boolean isBinaryConfigFile(InputStream stream) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		if (stream instanceof FileInputStream) {
+			FileChannel channel = ((FileInputStream) stream).getChannel();
+			ByteBuffer buffer = ByteBuffer.wrap(magic);
+			long position = channel.position();
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					return false;
+				}
+			}
+			return isMagic(magic);
+		} else if (stream.markSupported()) {
+			stream.mark(magic.length);
+			try {
+				int total = 0;
+				while (total < magic.length) {
+					int num = stream.read(magic, total, magic.length - total);
+					if (num < 0) {
+						return false;
+					}
+					total += num;
+				}
+				return isMagic(magic);
+			} finally {
+				stream.reset();
+			}
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Write a binary table configuration file with the table configurations to the output stream. The stream is not
+	 * closed.
+	 */
+	public static void write(OutputStream outputStream, List<DatabaseTableConfig<?>> tableConfigs)
+			throws SQLException, IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		DataOutputStream indexOutput = new DataOutputStream(index);
+		for (DatabaseTableConfig<?> tableConfig : tableConfigs) {
+			int offset = data.size();
+			BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(data, UTF_8));
+			DatabaseTableConfigLoader.write(writer, tableConfig);
+			writer.flush();
+			byte[] nameBytes = tableConfig.getDataClass().getName().getBytes(UTF_8);
+			indexOutput.writeInt(nameBytes.length);
+			indexOutput.write(nameBytes);
+			indexOutput.writeInt(offset);
+			indexOutput.writeInt(data.size() - offset);
+		}
+		indexOutput.flush();
+		DataOutputStream output = new DataOutputStream(outputStream);
+		output.write(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(tableConfigs.size());
+		index.writeTo(output);
+		data.writeTo(output);
+		output.flush();
+	}
+
+	@Override
+	public <T> DatabaseTableConfig<T> getTableConfig(ConnectionSource connectionSource, Class<T> clazz)
+			throws SQLException {
+		Section section = sectionMap.get(clazz.getName());
+		if (section == null) {
+			return null;
+		}
+		// decode the section every time since the caller may modify the config
+		byte[] bytes = new byte[section.length];
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(section.offset);
+		duplicate.get(bytes);
+		BufferedReader reader =
+				new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), UTF_8), bytes.length + 1);
+		DatabaseTableConfig<T> tableConfig = DatabaseTableConfigLoader.fromReader(reader);
+		if (tableConfig == null || tableConfig.getDataClass() != clazz) {
+			throw new SQLException("Binary table config file has an invalid section for " + clazz);
+		}
+		return tableConfig;
+	}
+
+	/**
+	 * Return the names of the classes that have configurations in this file.
+	 */
+	public Set<String> getClassNames() {
+		return Collections.unmodifiableSet(sectionMap.keySet());
+	}
+
+	private static boolean isMagic(byte[] bytes) {
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (bytes[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Location of a table's configuration in the buffer.
+	 */
+	private static class Section {
+		int offset;
+		final int length;
+
+		public Section(int offset, int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+}
@@ -3,11 +3,20 @@ package com.j256.ormlite.android.apptools;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.j256.ormlite.dao.BaseDaoImpl;
 import com.j256.ormlite.dao.DaoManager;
 import com.j256.ormlite.logger.Logger;
 import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
 
 import android.content.Context;
 import android.content.res.Resources;
@@ -38,10 +47,23 @@ public class OpenHelperManager {
 	private static final String HELPER_CLASS_RESOURCE_NAME = "open_helper_classname";
 	private static Logger logger = LoggerFactory.getLogger(OpenHelperManager.class);
 
-	private static Class<? extends OrmLiteSqliteOpenHelper> helperClass = null;
+	private static volatile Class<? extends OrmLiteSqliteOpenHelper> helperClass = null;
 	private static volatile OrmLiteSqliteOpenHelper helper = null;
 	private static boolean wasClosed = false;
-	private static int instanceCount = 0;
+	/**
+	 * The last helper that was closed whose connection source is adopted by the next helper.
+	 */
+	private static OrmLiteSqliteOpenHelper closedHelper = null;
+	/*
+	 * The helper is only created or closed while holding the class lock and the count is only moved to or from 0 while
+	 * holding it. While the count is above 0 the helper is stable so get and release can just CAS the count.
+	 */
+	private static final AtomicInteger instanceCount = new AtomicInteger();
+	/**
+	 * When the last prewarm was started so the first getHelper call outside of it can log the cold-start time.
+	 */
+	private static volatile long prewarmStartNanos;
+	private static final AtomicBoolean firstHelperPending = new AtomicBoolean();
 
 	/**
 	 * If you are _not_ using the {@link OrmLiteBaseActivity} type classes then you will need to call this in a static
@@ -62,6 +84,7 @@ public class OpenHelperManager {
 	 */
 	public static synchronized void setHelper(OrmLiteSqliteOpenHelper helper) {
 		OpenHelperManager.helper = helper;
+		closedHelper = null;
 	}
 
 	/**
@@ -70,13 +93,25 @@ public class OpenHelperManager {
 	 * onCreate() type of method when the application or service is starting. The caller should then keep the helper
 	 * around until it is shutting down when {@link #releaseHelper()} should be called.
 	 */
-	public static synchronized <T extends OrmLiteSqliteOpenHelper> T getHelper(Context context,
-			Class<T> openHelperClass) {
+	public static <T extends OrmLiteSqliteOpenHelper> T getHelper(Context context, Class<T> openHelperClass) {
+		T openHelper = innerGetHelper(context, openHelperClass);
+		logFirstHelper();
+		return openHelper;
+	}
+
+	private static <T extends OrmLiteSqliteOpenHelper> T innerGetHelper(Context context, Class<T> openHelperClass) {
 		if (openHelperClass == null) {
 			throw new IllegalArgumentException("openHelperClass argument is null");
 		}
-		innerSetHelperClass(openHelperClass);
-		return loadHelper(context, openHelperClass);
+		if (helperClass == openHelperClass) {
+			OrmLiteSqliteOpenHelper existingHelper = acquireExistingHelper();
+			if (existingHelper != null) {
+				@SuppressWarnings("unchecked")
+				T castHelper = (T) existingHelper;
+				return castHelper;
+			}
+		}
+		return getHelperLocked(context, openHelperClass);
 	}
 
 	/**
@@ -102,7 +137,23 @@ public class OpenHelperManager {
 	 * @deprecated Should use {@link #getHelper(Context, Class)}
 	 */
 	@Deprecated
-	public static synchronized OrmLiteSqliteOpenHelper getHelper(Context context) {
+	public static OrmLiteSqliteOpenHelper getHelper(Context context) {
+		OrmLiteSqliteOpenHelper openHelper = innerGetHelper(context);
+		logFirstHelper();
+		return openHelper;
+	}
+
+	private static OrmLiteSqliteOpenHelper innerGetHelper(Context context) {
+		if (helperClass != null) {
+			OrmLiteSqliteOpenHelper existingHelper = acquireExistingHelper();
+			if (existingHelper != null) {
+				return existingHelper;
+			}
+		}
+		return getHelperLocked(context);
+	}
+
+	private static synchronized OrmLiteSqliteOpenHelper getHelperLocked(Context context) {
 		if (helperClass == null) {
 			if (context == null) {
 				throw new IllegalArgumentException("context argument is null");
@@ -124,22 +175,174 @@ public class OpenHelperManager {
 	 * method if you expect to call {@link #getHelper(Context)} again before the application terminates.
 	 * </p>
 	 */
-	public static synchronized void releaseHelper() {
-		instanceCount--;
-		logger.trace("releasing helper {}, instance count = {}", helper, instanceCount);
-		if (instanceCount <= 0) {
+	public static void releaseHelper() {
+		// fast path which only handles releases that don't close the helper
+		while (true) {
+			int count = instanceCount.get();
+			if (count <= 1) {
+				break;
+			}
+			if (instanceCount.compareAndSet(count, count - 1)) {
+				logger.trace("releasing helper {}, instance count = {}", helper, count - 1);
+				return;
+			}
+		}
+		releaseHelperLocked();
+	}
+
+	private static synchronized void releaseHelperLocked() {
+		int count = instanceCount.decrementAndGet();
+		logger.trace("releasing helper {}, instance count = {}", helper, count);
+		if (count <= 0) {
 			if (helper != null) {
 				logger.trace("zero instances, closing helper {}", helper);
 				helper.close();
+				closedHelper = helper;
 				helper = null;
 				wasClosed = true;
 			}
-			if (instanceCount < 0) {
-				logger.error("too many calls to release helper, instance count = {}", instanceCount);
+			if (count < 0) {
+				logger.error("too many calls to release helper, instance count = {}", count);
+			}
+		}
+	}
+
+	private static synchronized <T extends OrmLiteSqliteOpenHelper> T getHelperLocked(Context context,
+			Class<T> openHelperClass) {
+		innerSetHelperClass(openHelperClass);
+		return loadHelper(context, openHelperClass);
+	}
+
+	/**
+	 * Increment the usage counter without locking if the helper is already open.
+	 * 
+	 * @return The open helper or null if the helper has to be created or re-opened while holding the lock.
+	 */
+	private static OrmLiteSqliteOpenHelper acquireExistingHelper() {
+		while (true) {
+			int count = instanceCount.get();
+			if (count <= 0) {
+				return null;
+			}
+			if (instanceCount.compareAndSet(count, count + 1)) {
+				OrmLiteSqliteOpenHelper existingHelper = helper;
+				logger.trace("returning helper {}, instance count = {} ", existingHelper, count + 1);
+				return existingHelper;
+			}
+		}
+	}
+
+	/**
+	 * Warm up the helper in a background thread so the first screen doesn't pay for it on its first query. This
+	 * constructs the helper (including reading any config file), opens the writable database (running onConfigure,
+	 * onCreate, and onUpgrade as needed), and creates the DAOs for the classes. Timings are logged at INFO level,
+	 * including the time from the start of the warm-up until the first {@link #getHelper(Context, Class)} call from
+	 * the application returns.
+	 * 
+	 * <p>
+	 * Calls to {@link #getHelper(Context, Class)} and to the helper's getDao methods only block if they need something
+	 * that the warm-up is still building. The warm-up holds a usage count on the helper like
+	 * {@link #getHelper(Context, Class)} so {@link #releaseHelper()} should be called once the returned future has
+	 * completed successfully, typically when the application terminates.
+	 * </p>
+	 * 
+	 * @return A future which returns the warmed up helper.
+	 */
+	public static <T extends OrmLiteSqliteOpenHelper> Future<T> prewarm(Context context,
+			final Class<T> openHelperClass, final Class<?>... daoClasses) {
+		if (context == null) {
+			throw new IllegalArgumentException("context argument is null");
+		}
+		if (openHelperClass == null) {
+			throw new IllegalArgumentException("openHelperClass argument is null");
+		}
+		final Context appContext = context.getApplicationContext();
+		return startPrewarm(new Callable<T>() {
+			@Override
+			public T call() throws SQLException {
+				long startNanos = System.nanoTime();
+				return warmUp(innerGetHelper(appContext, openHelperClass), startNanos, daoClasses);
+			}
+		});
+	}
+
+	/**
+	 * Similar to {@link #prewarm(Context, Class, Class...)} except the helper class is found like
+	 * {@link #getHelper(Context)}. The helper class should have been set with {@link #setOpenHelperClass(Class)} or in
+	 * the strings.xml.
+	 */
+	public static Future<OrmLiteSqliteOpenHelper> prewarm(final Context context, final Class<?>... daoClasses) {
+		if (context == null) {
+			throw new IllegalArgumentException("context argument is null");
+		}
+		return startPrewarm(new Callable<OrmLiteSqliteOpenHelper>() {
+			@Override
+			public OrmLiteSqliteOpenHelper call() throws SQLException {
+				long startNanos = System.nanoTime();
+				return warmUp(innerGetHelper(context), startNanos, daoClasses);
 			}
+		});
+	}
+
+	private static <T> Future<T> startPrewarm(Callable<T> callable) {
+		prewarmStartNanos = System.nanoTime();
+		firstHelperPending.set(true);
+		FutureTask<T> task = new FutureTask<T>(callable);
+		Thread thread = new Thread(task, "ormlite-prewarm");
+		thread.setDaemon(true);
+		thread.start();
+		return task;
+	}
+
+	private static <T extends OrmLiteSqliteOpenHelper> T warmUp(T openHelper, long startNanos, Class<?>[] daoClasses)
+			throws SQLException {
+		try {
+			long helperNanos = System.nanoTime();
+			logger.info("prewarm: created helper {} in {}ms", openHelper, elapsedMillis(startNanos, helperNanos));
+			ConnectionSource connectionSource = openHelper.getConnectionSource();
+			// this opens the writable database which runs the onConfigure, onCreate, and onUpgrade callbacks
+			DatabaseConnection connection = connectionSource.getReadWriteConnection(null);
+			connectionSource.releaseConnection(connection);
+			long databaseNanos = System.nanoTime();
+			logger.info("prewarm: opened database in {}ms", elapsedMillis(helperNanos, databaseNanos));
+			for (Class<?> daoClass : daoClasses) {
+				long daoStartNanos = System.nanoTime();
+				createDao(openHelper, daoClass);
+				logger.info("prewarm: created DAO for {} in {}ms", daoClass.getSimpleName(),
+						elapsedMillis(daoStartNanos, System.nanoTime()));
+			}
+			logger.info("prewarm: warmed up helper, database, and DAOs in {}ms",
+					elapsedMillis(startNanos, System.nanoTime()));
+			return openHelper;
+		} catch (SQLException e) {
+			releaseHelper();
+			throw e;
+		} catch (RuntimeException e) {
+			releaseHelper();
+			throw e;
 		}
 	}
 
+	private static <T> void createDao(OrmLiteSqliteOpenHelper openHelper, Class<T> daoClass) throws SQLException {
+		// the DAO is cached by the DaoManager so getDao() calls later will find it
+		openHelper.getDao(daoClass);
+	}
+
+	/**
+	 * Log the cold-start time the first time that the application gets the helper after a prewarm was started. The
+	 * helper returned is constructed and, if the prewarm got that far before the call, its database is open.
+	 */
+	private static void logFirstHelper() {
+		if (firstHelperPending.get() && firstHelperPending.compareAndSet(true, false)) {
+			logger.info("prewarm: first getHelper call returned {}ms after the prewarm started",
+					elapsedMillis(prewarmStartNanos, System.nanoTime()));
+		}
+	}
+
+	private static long elapsedMillis(long startNanos, long endNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+	}
+
 	/**
 	 * Set the helper class and make sure we aren't changing it to another class.
 	 */
@@ -170,32 +373,33 @@ public class OpenHelperManager {
 			/*
 			 * Filipe Leandro and I worked on this bug for like 10 hours straight. It's a doosey.
 			 * 
-			 * Each ForeignCollection has internal DAO objects that are holding a ConnectionSource. Each Android
-			 * ConnectionSource is tied to a particular database connection. What Filipe was seeing was that when all of
-			 * his views we closed (onDestroy), but his application WAS NOT FULLY KILLED, the first View.onCreate()
-			 * method would open a new connection to the database. Fine. But because he application was still in memory,
-			 * the static BaseDaoImpl default cache had not been cleared and was containing cached objects with
-			 * ForeignCollections. The ForeignCollections still had references to the DAOs that had been opened with old
-			 * ConnectionSource objects and therefore the old database connection. Using those cached collections would
-			 * cause exceptions saying that you were trying to work with a database that had already been close.
+			 * Each ForeignCollection has internal DAO objects that are holding a ConnectionSource. When all of his views
+			 * were closed (onDestroy) but the application was not fully killed, the static BaseDaoImpl caches still had
+			 * objects with ForeignCollections whose DAOs were holding the old ConnectionSource and therefore the old
+			 * database connection. Using those cached collections would cause exceptions saying that you were trying to
+			 * work with a database that had already been closed.
 			 * 
-			 * Now, whenever we create a new helper object, we must make sure that the internal object caches have been
-			 * fully cleared. This is a good lesson for anyone that is holding objects around after they have closed
-			 * connections to the database or re-created the DAOs on a different connection somehow.
-			 */
-			BaseDaoImpl.clearAllInternalObjectCaches();
-			/*
-			 * Might as well do this also since if the helper changes then the ConnectionSource will change so no one is
-			 * going to have a cache hit on the old DAOs anyway. All they are doing is holding memory.
+			 * We used to clear all of the internal object caches and the DAO cache here which meant that every DAO had
+			 * to be re-created. Now the new helper takes over the old helper's ConnectionSource and points it at the
+			 * new database so the old DAOs, their object caches, and the ForeignCollections all keep working.
+			 * 
+			 * If there is no closed helper of the same class to take over from, such as after setHelper(), then the
+			 * cached DAOs may still be holding an old ConnectionSource so we have to clear them like we used to.
 			 * 
 			 * NOTE: we don't want to clear the config map.
 			 */
-			DaoManager.clearDaoCache();
-			instanceCount = 0;
+			if (closedHelper != null && closedHelper.getClass() == helper.getClass()) {
+				helper.adoptConnectionSource(closedHelper);
+			} else {
+				BaseDaoImpl.clearAllInternalObjectCaches();
+				DaoManager.clearDaoCache();
+			}
+			closedHelper = null;
+			instanceCount.set(0);
 		}
 
-		instanceCount++;
-		logger.trace("returning helper {}, instance count = {} ", helper, instanceCount);
+		int count = instanceCount.incrementAndGet();
+		logger.trace("returning helper {}, instance count = {} ", helper, count);
 		@SuppressWarnings("unchecked")
 		T castHelper = (T) helper;
 		return castHelper;
@@ -4,9 +4,11 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.lang.reflect.Field;
@@ -16,7 +18,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import com.j256.ormlite.dao.DaoManager;
 import com.j256.ormlite.db.DatabaseType;
@@ -24,6 +30,7 @@ import com.j256.ormlite.db.SqliteAndroidDatabaseType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.field.DatabaseFieldConfig;
 import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.misc.IOUtils;
 import com.j256.ormlite.table.DatabaseTable;
 import com.j256.ormlite.table.DatabaseTableConfig;
 import com.j256.ormlite.table.DatabaseTableConfigLoader;
@@ -31,7 +38,8 @@ import com.j256.ormlite.table.DatabaseTableConfigLoader;
 /**
  * Database configuration file helper class that is used to write a configuration file into the raw resource
  * sub-directory to speed up DAO creation. If run from main, it takes an optional "-s" argument which turns on sorting
- * of fields by name to produce more deterministic output followed by the name of the output config file.
+ * of fields by name to produce more deterministic output and an optional "-b" argument which writes a
+ * {@link BinaryTableConfigFile} instead of a text file, followed by the name of the output config file.
  * 
  * <p>
  * With help from the user list and especially Ian Dees, we discovered that calls to annotation methods in Android are
@@ -54,6 +62,13 @@ import com.j256.ormlite.table.DatabaseTableConfigLoader;
  * whenever you edit one of your database classes. There is no way that I know of to do this automagically.
  * </p>
  * 
+ * <p>
+ * The source directories are walked in parallel. When a config file is written, the modification time and size of
+ * each source file and the annotated classes that were found in it are saved in a cache file in the temporary
+ * directory. The next run only loads the classes from the source files that have changed and doesn't rewrite the
+ * config file if none of them have.
+ * </p>
+ * 
  * @author graywatson
  */
 public class OrmLiteConfigUtil {
@@ -72,29 +87,42 @@ public class OrmLiteConfigUtil {
 	 */
 	protected static int maxFindSourceLevel = 20;
 
+	/**
+	 * Prefix of the name of the file in the temporary directory where the source scan for a config file is cached.
+	 */
+	protected static final String SCAN_CACHE_FILE_PREFIX = "ormlite-config-scan-";
+
 	private static final DatabaseType databaseType = new SqliteAndroidDatabaseType();
 	private static final ClassComparator classComparator = new ClassComparator();
 
 	/**
 	 * A call through to {@link #writeConfigFile(File, boolean)}. It takes an optional "-s" argument which turns on
-	 * sorting of classes by name to produce more deterministic output followed by the name of the output config file.
+	 * sorting of classes by name to produce more deterministic output and an optional "-b" argument which writes a
+	 * binary config file, followed by the name of the output config file.
 	 */
 	public static void main(String[] args) throws Exception {
 		int argCount = 0;
 		boolean sortClasses = false;
+		boolean binary = false;
 		for (; argCount < args.length; argCount++) {
 			String arg = args[argCount];
 			if (arg.equals("-s")) {
 				sortClasses = true;
+			} else if (arg.equals("-b")) {
+				binary = true;
 			} else {
 				break;
 			}
 		}
 		// we should have one arg left
 		if (argCount != args.length - 1) {
-			throw new IllegalArgumentException("Usage: OrmLiteConfigUtil [-s] config-file-name");
+			throw new IllegalArgumentException("Usage: OrmLiteConfigUtil [-s] [-b] config-file-name");
+		}
+		if (binary) {
+			writeBinaryConfigFile(args[argCount], sortClasses);
+		} else {
+			writeConfigFile(args[argCount], sortClasses);
 		}
-		writeConfigFile(args[argCount], sortClasses);
 	}
 
 	/**
@@ -113,9 +141,13 @@ public class OrmLiteConfigUtil {
 	 *            Set to true to sort the classes by name before the file is generated.
 	 */
 	public static void writeConfigFile(String fileName, boolean sortClasses) throws SQLException, IOException {
-		List<Class<?>> classList = new ArrayList<Class<?>>();
-		findAnnotatedClasses(classList, new File("."), 0);
-		writeConfigFile(fileName, classList.toArray(new Class[classList.size()]), sortClasses);
+		File rawDir = findRawDir(new File("."));
+		if (rawDir == null) {
+			System.err.println("Could not find " + RAW_DIR_NAME + " directory which is typically in the "
+					+ RESOURCE_DIR_NAME + " directory");
+		} else {
+			writeConfigFile(new File(rawDir, fileName), new File("."), sortClasses);
+		}
 	}
 
 	/**
@@ -168,16 +200,15 @@ public class OrmLiteConfigUtil {
 	}
 
 	/**
-	 * Finds the annotated classes in the specified search directory or below and writes a configuration file.
+	 * Finds the annotated classes in the specified search directory or below and writes a configuration file. The file
+	 * is not rewritten if the source files are the same as the last time it was written.
 	 * 
 	 * @param sortClasses
 	 *            Set to true to sort the classes by name before the file is generated.
 	 */
 	public static void writeConfigFile(File configFile, File searchDir, boolean sortClasses)
 			throws SQLException, IOException {
-		List<Class<?>> classList = new ArrayList<Class<?>>();
-		findAnnotatedClasses(classList, searchDir, 0);
-		writeConfigFile(configFile, classList.toArray(new Class[classList.size()]), sortClasses);
+		writeConfigFileIfChanged(configFile, searchDir, sortClasses, false);
 	}
 
 	/**
@@ -214,9 +245,8 @@ public class OrmLiteConfigUtil {
 	 */
 	public static void writeConfigFile(OutputStream outputStream, File searchDir, boolean sortClasses)
 			throws SQLException, IOException {
-		List<Class<?>> classList = new ArrayList<Class<?>>();
-		findAnnotatedClasses(classList, searchDir, 0);
-		writeConfigFile(outputStream, classList.toArray(new Class[classList.size()]), sortClasses);
+		List<SourceFile> sourceFiles = findSourceFiles(searchDir, null);
+		writeConfigFile(outputStream, loadAnnotatedClasses(sourceFiles), sortClasses);
 	}
 
 	/**
@@ -235,11 +265,7 @@ public class OrmLiteConfigUtil {
 	public static void writeConfigFile(OutputStream outputStream, Class<?>[] classes, boolean sortClasses)
 			throws SQLException, IOException {
 		if (sortClasses) {
-			// sort our class list to make the output more deterministic
-			Class<?>[] sortedClasses = new Class<?>[classes.length];
-			System.arraycopy(classes, 0, sortedClasses, 0, classes.length);
-			Arrays.sort(sortedClasses, classComparator);
-			classes = sortedClasses;
+			classes = sortClasses(classes);
 		}
 		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream), 4096);
 		try {
@@ -254,6 +280,76 @@ public class OrmLiteConfigUtil {
 		}
 	}
 
+	/**
+	 * Finds the annotated classes in the current directory or below and writes a binary configuration file to the
+	 * file-name in the raw folder. See {@link BinaryTableConfigFile}.
+	 * 
+	 * @param sortClasses
+	 *            Set to true to sort the classes by name before the file is generated.
+	 */
+	public static void writeBinaryConfigFile(String fileName, boolean sortClasses) throws SQLException, IOException {
+		File rawDir = findRawDir(new File("."));
+		if (rawDir == null) {
+			System.err.println("Could not find " + RAW_DIR_NAME + " directory which is typically in the "
+					+ RESOURCE_DIR_NAME + " directory");
+		} else {
+			writeBinaryConfigFile(new File(rawDir, fileName), new File("."), sortClasses);
+		}
+	}
+
+	/**
+	 * Finds the annotated classes in the specified search directory or below and writes a binary configuration file.
+	 * The file is not rewritten if the source files are the same as the last time it was written.
+	 * 
+	 * @param sortClasses
+	 *            Set to true to sort the classes by name before the file is generated.
+	 */
+	public static void writeBinaryConfigFile(File configFile, File searchDir, boolean sortClasses)
+			throws SQLException, IOException {
+		writeConfigFileIfChanged(configFile, searchDir, sortClasses, true);
+	}
+
+	/**
+	 * Write a binary configuration file with the configuration for classes.
+	 * 
+	 * @param sortClasses
+	 *            Set to true to sort the classes by name before the file is generated.
+	 */
+	public static void writeBinaryConfigFile(File configFile, Class<?>[] classes, boolean sortClasses)
+			throws SQLException, IOException {
+		System.out.println("Writing binary configurations to " + configFile.getAbsolutePath());
+		writeBinaryConfigFile(new FileOutputStream(configFile), classes, sortClasses);
+	}
+
+	/**
+	 * Write a binary configuration file to an output stream with the configuration for classes. The output stream is
+	 * closed when this returns.
+	 * 
+	 * @param sortClasses
+	 *            Set to true to sort the classes by name before the file is generated.
+	 */
+	public static void writeBinaryConfigFile(OutputStream outputStream, Class<?>[] classes, boolean sortClasses)
+			throws SQLException, IOException {
+		if (sortClasses) {
+			classes = sortClasses(classes);
+		}
+		try {
+			List<DatabaseTableConfig<?>> tableConfigs = new ArrayList<DatabaseTableConfig<?>>();
+			for (Class<?> clazz : classes) {
+				DatabaseTableConfig<?> tableConfig = buildTableConfig(clazz);
+				if (tableConfig != null) {
+					tableConfigs.add(tableConfig);
+					System.out.println("Wrote config for " + clazz);
+				}
+			}
+			BinaryTableConfigFile.write(outputStream, tableConfigs);
+			// NOTE: done is here because this is public
+			System.out.println("Done.");
+		} finally {
+			outputStream.close();
+		}
+	}
+
 	/**
 	 * Look for the resource-directory in the current directory or the directories above. Then look for the
 	 * raw-directory underneath the resource-directory.
@@ -278,59 +374,163 @@ public class OrmLiteConfigUtil {
 		writer.newLine();
 	}
 
-	private static void findAnnotatedClasses(List<Class<?>> classList, File dir, int level)
-			throws SQLException, IOException {
-		for (File file : dir.listFiles()) {
-			if (file.isDirectory()) {
-				// recurse if we aren't deep enough
-				if (level < maxFindSourceLevel) {
-					findAnnotatedClasses(classList, file, level + 1);
+	/**
+	 * Write the config file unless the source files and the config file are the same as when it was last written.
+	 * 
+	 * @return True if the config file was written or false if it was unchanged.
+	 */
+	protected static boolean writeConfigFileIfChanged(File configFile, File searchDir, boolean sortClasses,
+			boolean binary) throws SQLException, IOException {
+		String options = (binary ? "binary" : "text") + (sortClasses ? ",sorted" : "");
+		File cacheFile = getScanCacheFile(configFile);
+		ScanCache cache = ScanCache.read(cacheFile);
+		List<SourceFile> sourceFiles = findSourceFiles(searchDir, cache);
+		if (cache != null && cache.matches(configFile, options, sourceFiles)) {
+			System.out.println("Annotated classes are unchanged, not rewriting " + configFile.getAbsolutePath());
+			return false;
+		}
+		Class<?>[] classes = loadAnnotatedClasses(sourceFiles);
+		if (binary) {
+			writeBinaryConfigFile(configFile, classes, sortClasses);
+		} else {
+			writeConfigFile(configFile, classes, sortClasses);
+		}
+		ScanCache.write(cacheFile, configFile, options, sourceFiles);
+		return true;
+	}
+
+	/**
+	 * Return the file where the results of the source scan for the config file are cached.
+	 */
+	protected static File getScanCacheFile(File configFile) {
+		String name = SCAN_CACHE_FILE_PREFIX + Integer.toHexString(configFile.getAbsolutePath().hashCode());
+		return new File(System.getProperty("java.io.tmpdir"), name);
+	}
+
+	/**
+	 * Walk the directories in parallel to find the source files and their packages. The files are returned in the same
+	 * order as a serial walk.
+	 * 
+	 * @param cache
+	 *            Results of the previous scan which are used for the unchanged files or null if none.
+	 */
+	private static List<SourceFile> findSourceFiles(File searchDir, ScanCache cache) throws IOException {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return pool.invoke(new SourceDirTask(searchDir, 0, cache));
+		} catch (RuntimeException e) {
+			// the fork-join pool may wrap the exception that the task threw in another one
+			for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
 				}
-				continue;
-			}
-			// skip non .java files
-			if (!file.getName().endsWith(".java")) {
-				continue;
 			}
-			String packageName = getPackageOfClass(file);
-			if (packageName == null) {
-				System.err.println("Could not find package name for: " + file);
-				continue;
-			}
-			// get the filename and cut off the .java
-			String name = file.getName();
-			name = name.substring(0, name.length() - ".java".length());
-			String className = packageName + "." + name;
-			Class<?> clazz;
-			try {
-				clazz = Class.forName(className);
-			} catch (Throwable t) {
-				// amazingly, this sometimes throws an Error
-				System.err.println("Could not load class file for: " + file);
-				System.err.println("     " + t);
+			throw e;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Load the annotated classes from the source files. For the unchanged files, the classes that were found the last
+	 * time are loaded. Otherwise the class of the file and its inner classes are loaded and checked for the annotations.
+	 * This is done serially so the class initializers are run in the same order every time.
+	 */
+	private static Class<?>[] loadAnnotatedClasses(List<SourceFile> sourceFiles) {
+		List<Class<?>> classList = new ArrayList<Class<?>>();
+		for (SourceFile sourceFile : sourceFiles) {
+			if (sourceFile.classNames == null) {
+				findAnnotatedClasses(classList, sourceFile);
 				continue;
 			}
-			if (classHasAnnotations(clazz)) {
-				classList.add(clazz);
+			for (String className : sourceFile.classNames) {
+				try {
+					classList.add(Class.forName(className));
+				} catch (Throwable t) {
+					// amazingly, this sometimes throws an Error
+					System.err.println("Could not load class file for: " + sourceFile.file);
+					System.err.println("     " + t);
+					// don't cache the file so it is looked at again next time
+					sourceFile.classNames = null;
+				}
 			}
-			// handle inner classes
-			try {
-				for (Class<?> innerClazz : clazz.getDeclaredClasses()) {
-					if (classHasAnnotations(innerClazz)) {
-						classList.add(innerClazz);
-					}
+		}
+		return classList.toArray(new Class[classList.size()]);
+	}
+
+	/**
+	 * Find the annotated classes in the source file and record their names in it so they can be cached.
+	 */
+	private static void findAnnotatedClasses(List<Class<?>> classList, SourceFile sourceFile) {
+		File file = sourceFile.file;
+		if (sourceFile.packageName == null) {
+			System.err.println("Could not find package name for: " + file);
+			// cached as having no classes so we don't look at it again until it changes
+			sourceFile.classNames = new ArrayList<String>();
+			return;
+		}
+		// get the filename and cut off the .java
+		String name = file.getName();
+		name = name.substring(0, name.length() - ".java".length());
+		String className = sourceFile.packageName + "." + name;
+		Class<?> clazz;
+		try {
+			clazz = Class.forName(className);
+		} catch (Throwable t) {
+			// amazingly, this sometimes throws an Error
+			System.err.println("Could not load class file for: " + file);
+			System.err.println("     " + t);
+			sourceFile.classNames = new ArrayList<String>();
+			return;
+		}
+		List<String> classNames = new ArrayList<String>();
+		if (classHasAnnotations(clazz)) {
+			classList.add(clazz);
+			classNames.add(clazz.getName());
+		}
+		// handle inner classes
+		try {
+			for (Class<?> innerClazz : clazz.getDeclaredClasses()) {
+				if (classHasAnnotations(innerClazz)) {
+					classList.add(innerClazz);
+					classNames.add(innerClazz.getName());
 				}
-			} catch (Throwable t) {
-				// amazingly, this sometimes throws an Error
-				System.err.println("Could not load inner classes for: " + clazz);
-				System.err.println("     " + t);
-				continue;
 			}
+		} catch (Throwable t) {
+			// amazingly, this sometimes throws an Error
+			System.err.println("Could not load inner classes for: " + clazz);
+			System.err.println("     " + t);
+			return;
 		}
+		sourceFile.classNames = classNames;
+	}
+
+	private static Class<?>[] sortClasses(Class<?>[] classes) {
+		// sort our class list to make the output more deterministic
+		Class<?>[] sortedClasses = new Class<?>[classes.length];
+		System.arraycopy(classes, 0, sortedClasses, 0, classes.length);
+		Arrays.sort(sortedClasses, classComparator);
+		return sortedClasses;
 	}
 
 	private static void writeConfigForTable(BufferedWriter writer, Class<?> clazz, boolean sortClasses)
 			throws SQLException, IOException {
+		DatabaseTableConfig<?> tableConfig = buildTableConfig(clazz);
+		if (tableConfig == null) {
+			return;
+		}
+		DatabaseTableConfigLoader.write(writer, tableConfig);
+		writer.append("#################################");
+		writer.newLine();
+		System.out.println("Wrote config for " + clazz);
+	}
+
+	/**
+	 * Build the table configuration for a class.
+	 * 
+	 * @return The configuration or null if the class should be skipped.
+	 */
+	private static DatabaseTableConfig<?> buildTableConfig(Class<?> clazz) throws SQLException {
 		String tableName = DatabaseTableConfig.extractTableName(databaseType, clazz);
 		List<DatabaseFieldConfig> fieldConfigs = new ArrayList<DatabaseFieldConfig>();
 		// walk up the classes finding the fields
@@ -346,18 +546,15 @@ public class OrmLiteConfigUtil {
 		} catch (Error e) {
 			System.err.println(
 					"Skipping " + clazz + " because we got an error finding its definition: " + e.getMessage());
-			return;
+			return null;
 		}
 		if (fieldConfigs.isEmpty()) {
 			System.out.println("Skipping " + clazz + " because no annotated fields found");
-			return;
+			return null;
 		}
 		@SuppressWarnings({ "rawtypes", "unchecked" })
 		DatabaseTableConfig<?> tableConfig = new DatabaseTableConfig(clazz, tableName, fieldConfigs);
-		DatabaseTableConfigLoader.write(writer, tableConfig);
-		writer.append("#################################");
-		writer.newLine();
-		System.out.println("Wrote config for " + clazz);
+		return tableConfig;
 	}
 
 	private static boolean classHasAnnotations(Class<?> clazz) {
@@ -438,6 +635,255 @@ public class OrmLiteConfigUtil {
 		return null;
 	}
 
+	/**
+	 * Source file that was found in the search directory.
+	 */
+	private static class SourceFile {
+		final File file;
+		final String path;
+		final long lastModified;
+		final long length;
+		/**
+		 * Package of the file or null if it was not read because the file is unchanged.
+		 */
+		final String packageName;
+		/**
+		 * Names of the annotated classes in the file or null if they still have to be found.
+		 */
+		List<String> classNames;
+		final boolean cached;
+
+		public SourceFile(File file, long lastModified, long length, String packageName, List<String> classNames) {
+			this.file = file;
+			this.path = file.getAbsolutePath();
+			this.lastModified = lastModified;
+			this.length = length;
+			this.packageName = packageName;
+			this.classNames = classNames;
+			this.cached = (classNames != null);
+		}
+	}
+
+	/**
+	 * Task which finds the source files in a directory and forks tasks for its sub-directories.
+	 */
+	private static class SourceDirTask extends RecursiveTask<List<SourceFile>> {
+
+		private static final long serialVersionUID = 4617349418245627245L;
+
+		private final File dir;
+		private final int level;
+		private final ScanCache cache;
+
+		public SourceDirTask(File dir, int level, ScanCache cache) {
+			this.dir = dir;
+			this.level = level;
+			this.cache = cache;
+		}
+
+		@Override
+		protected List<SourceFile> compute() {
+			File[] files = dir.listFiles();
+			if (files == null) {
+				return new ArrayList<SourceFile>();
+			}
+			// each entry is a source file or the task for a sub-directory so we keep the order of the serial walk
+			Object[] entries = new Object[files.length];
+			for (int i = 0; i < files.length; i++) {
+				File file = files[i];
+				// recurse if we aren't deep enough
+				if (file.isDirectory() && level < maxFindSourceLevel) {
+					entries[i] = new SourceDirTask(file, level + 1, cache).fork();
+				}
+			}
+			for (int i = 0; i < files.length; i++) {
+				File file = files[i];
+				// skip non .java files
+				if (entries[i] == null && !file.isDirectory() && file.getName().endsWith(".java")) {
+					try {
+						entries[i] = readSourceFile(file);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}
+			List<SourceFile> sourceFiles = new ArrayList<SourceFile>();
+			for (Object entry : entries) {
+				if (entry instanceof SourceDirTask) {
+					sourceFiles.addAll(((SourceDirTask) entry).join());
+				} else if (entry != null) {
+					sourceFiles.add((SourceFile) entry);
+				}
+			}
+			return sourceFiles;
+		}
+
+		private SourceFile readSourceFile(File file) throws IOException {
+			long lastModified = file.lastModified();
+			long length = file.length();
+			if (cache != null) {
+				List<String> classNames = cache.getClassNames(file.getAbsolutePath(), lastModified, length);
+				if (classNames != null) {
+					return new SourceFile(file, lastModified, length, null, classNames);
+				}
+			}
+			return new SourceFile(file, lastModified, length, getPackageOfClass(file), null);
+		}
+	}
+
+	/**
+	 * Results of the previous source scan of a config file. The cache file has a config line with the state of the
+	 * config file when it was written and a source line for each source file with the annotated classes found in it.
+	 */
+	private static class ScanCache {
+
+		private static final String HEADER = "# ormlite config scan cache";
+		private static final String CONFIG_PREFIX = "config";
+		private static final String SOURCE_PREFIX = "source";
+		private static final String FIELD_SEPARATOR = "\t";
+		private static final String CLASS_SEPARATOR = ",";
+
+		private String configPath;
+		private String configOptions;
+		private long configLastModified;
+		private long configLength;
+		private final Map<String, CachedSource> sourceMap = new HashMap<String, CachedSource>();
+
+		/**
+		 * Read in the cache file or return null if it doesn't exist or can't be parsed.
+		 */
+		public static ScanCache read(File cacheFile) {
+			if (!cacheFile.exists()) {
+				return null;
+			}
+			ScanCache cache = new ScanCache();
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), "UTF-8"));
+				if (!HEADER.equals(reader.readLine())) {
+					return null;
+				}
+				while (true) {
+					String line = reader.readLine();
+					if (line == null) {
+						break;
+					}
+					String[] fields = line.split(FIELD_SEPARATOR, -1);
+					if (fields.length == 5 && fields[0].equals(CONFIG_PREFIX)) {
+						cache.configOptions = fields[1];
+						cache.configLastModified = Long.parseLong(fields[2]);
+						cache.configLength = Long.parseLong(fields[3]);
+						cache.configPath = fields[4];
+					} else if (fields.length == 5 && fields[0].equals(SOURCE_PREFIX)) {
+						List<String> classNames = new ArrayList<String>();
+						if (fields[4].length() > 0) {
+							classNames.addAll(Arrays.asList(fields[4].split(CLASS_SEPARATOR)));
+						}
+						cache.sourceMap.put(fields[3],
+								new CachedSource(Long.parseLong(fields[1]), Long.parseLong(fields[2]), classNames));
+					} else {
+						return null;
+					}
+				}
+			} catch (IOException e) {
+				System.err.println("Could not read scan cache " + cacheFile + ": " + e);
+				return null;
+			} catch (NumberFormatException e) {
+				return null;
+			} finally {
+				IOUtils.closeQuietly(reader);
+			}
+			if (cache.configPath == null) {
+				return null;
+			}
+			return cache;
+		}
+
+		/**
+		 * Write the cache file with the current state of the config file and the source files.
+		 */
+		public static void write(File cacheFile, File configFile, String options, List<SourceFile> sourceFiles) {
+			BufferedWriter writer = null;
+			try {
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(cacheFile), "UTF-8"));
+				writer.append(HEADER);
+				writer.newLine();
+				writer.append(CONFIG_PREFIX).append('\t').append(options);
+				writer.append('\t').append(Long.toString(configFile.lastModified()));
+				writer.append('\t').append(Long.toString(configFile.length()));
+				writer.append('\t').append(configFile.getAbsolutePath());
+				writer.newLine();
+				for (SourceFile sourceFile : sourceFiles) {
+					if (sourceFile.classNames == null) {
+						// will be looked at again next time
+						continue;
+					}
+					writer.append(SOURCE_PREFIX);
+					writer.append('\t').append(Long.toString(sourceFile.lastModified));
+					writer.append('\t').append(Long.toString(sourceFile.length));
+					writer.append('\t').append(sourceFile.path);
+					writer.append('\t');
+					boolean first = true;
+					for (String className : sourceFile.classNames) {
+						if (!first) {
+							writer.append(CLASS_SEPARATOR);
+						}
+						writer.append(className);
+						first = false;
+					}
+					writer.newLine();
+				}
+			} catch (IOException e) {
+				// the cache is just an optimization
+				System.err.println("Could not write scan cache " + cacheFile + ": " + e);
+			} finally {
+				IOUtils.closeQuietly(writer);
+			}
+		}
+
+		/**
+		 * Return the class names of the source file if it hasn't changed since the cache was written otherwise null.
+		 */
+		public List<String> getClassNames(String path, long lastModified, long length) {
+			CachedSource cachedSource = sourceMap.get(path);
+			if (cachedSource != null && cachedSource.lastModified == lastModified && cachedSource.length == length) {
+				return cachedSource.classNames;
+			} else {
+				return null;
+			}
+		}
+
+		/**
+		 * Return true if the config file was written with the same options, has not been touched since, and the
+		 * source files are the same ones that were scanned.
+		 */
+		public boolean matches(File configFile, String options, List<SourceFile> sourceFiles) {
+			if (!configFile.getAbsolutePath().equals(configPath) || !options.equals(configOptions)
+					|| !configFile.exists() || configFile.lastModified() != configLastModified
+					|| configFile.length() != configLength || sourceFiles.size() != sourceMap.size()) {
+				return false;
+			}
+			for (SourceFile sourceFile : sourceFiles) {
+				if (!sourceFile.cached) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class CachedSource {
+		final long lastModified;
+		final long length;
+		final List<String> classNames;
+
+		public CachedSource(long lastModified, long length, List<String> classNames) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.classNames = classNames;
+		}
+	}
+
 	/**
 	 * Compare fields by name.
 	 */
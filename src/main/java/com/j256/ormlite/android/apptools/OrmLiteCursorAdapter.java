@@ -3,6 +3,9 @@ package com.j256.ormlite.android.apptools;
 import java.sql.SQLException;
 
 import com.j256.ormlite.android.AndroidDatabaseResults;
+import com.j256.ormlite.android.RowMapperDaoImpl;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.GenericRowMapper;
 import com.j256.ormlite.stmt.PreparedQuery;
 
 import android.content.Context;
@@ -18,6 +21,7 @@ import android.widget.CursorAdapter;
 public abstract class OrmLiteCursorAdapter<T, ViewType extends View> extends CursorAdapter {
 
 	protected PreparedQuery<T> preparedQuery;
+	private GenericRowMapper<T> rowMapper;
 
 	public OrmLiteCursorAdapter(Context context) {
 		super(context, null, false);
@@ -64,10 +68,16 @@ public abstract class OrmLiteCursorAdapter<T, ViewType extends View> extends Cur
 	}
 
 	/**
-	 * Map a single row to our cursor object.
+	 * Map a single row to our cursor object. If the DAO passed to {@link #changeCursor(Cursor, PreparedQuery, Dao)} has
+	 * a row mapper then it maps every row, otherwise the prepared query does.
 	 */
 	protected T cursorToObject(Cursor cursor) throws SQLException {
-		return preparedQuery.mapRow(new AndroidDatabaseResults(cursor, null, true));
+		AndroidDatabaseResults results = new AndroidDatabaseResults(cursor, null, true);
+		if (rowMapper == null) {
+			return preparedQuery.mapRow(results);
+		} else {
+			return rowMapper.mapRow(results);
+		}
 	}
 
 	/**
@@ -87,7 +97,26 @@ public abstract class OrmLiteCursorAdapter<T, ViewType extends View> extends Cur
 		super.changeCursor(cursor);
 	}
 
+	/**
+	 * Change the cursor associated with the prepared query. If the DAO is a {@link RowMapperDaoImpl} then the rows are
+	 * mapped by its row mapper which has been checked against the DAO's table-info.
+	 */
+	public void changeCursor(Cursor cursor, PreparedQuery<T> preparedQuery, Dao<T, ?> dao) {
+		setPreparedQuery(preparedQuery, dao);
+		super.changeCursor(cursor);
+	}
+
 	public void setPreparedQuery(PreparedQuery<T> preparedQuery) {
 		this.preparedQuery = preparedQuery;
+		this.rowMapper = null;
+	}
+
+	public void setPreparedQuery(PreparedQuery<T> preparedQuery, Dao<T, ?> dao) {
+		this.preparedQuery = preparedQuery;
+		if (dao instanceof RowMapperDaoImpl) {
+			this.rowMapper = ((RowMapperDaoImpl<T, ?>) dao).getRowMapper();
+		} else {
+			this.rowMapper = null;
+		}
 	}
 }
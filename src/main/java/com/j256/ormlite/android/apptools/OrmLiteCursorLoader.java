@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import com.j256.ormlite.android.AndroidCompiledStatement;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.Dao.DaoObserver;
+import com.j256.ormlite.misc.IOUtils;
 import com.j256.ormlite.stmt.PreparedQuery;
 import com.j256.ormlite.support.DatabaseConnection;
 
@@ -29,6 +30,8 @@ public class OrmLiteCursorLoader<T> extends AsyncTaskLoader<Cursor> implements D
 	protected Dao<T, ?> dao;
 	protected PreparedQuery<T> query;
 	protected Cursor cursor;
+	protected long cursorWindowSize;
+	private volatile AndroidCompiledStatement runningStatement;
 
 	public OrmLiteCursorLoader(Context context, Dao<T, ?> dao, PreparedQuery<T> query) {
 		super(context);
@@ -38,20 +41,53 @@ public class OrmLiteCursorLoader<T> extends AsyncTaskLoader<Cursor> implements D
 
 	@Override
 	public Cursor loadInBackground() {
+		AndroidCompiledStatement statement = null;
 		Cursor cursor;
 		try {
 			DatabaseConnection connection = dao.getConnectionSource().getReadOnlyConnection(dao.getTableName());
-			AndroidCompiledStatement statement = (AndroidCompiledStatement) query.compile(connection, SELECT);
+			statement = (AndroidCompiledStatement) query.compile(connection, SELECT);
+			if (cursorWindowSize > 0) {
+				statement.setCursorWindowSize(cursorWindowSize);
+			}
+			// so stale queries can be aborted by cancelLoadInBackground()
+			statement.setCancelQueriesEnabled(true);
+			runningStatement = statement;
 			cursor = statement.getCursor();
+			// fill the cursor with results
+			cursor.getCount();
 		} catch (SQLException e) {
+			// closing the statement also closes its cursor
+			IOUtils.closeQuietly(statement);
+			if (statement != null && statement.isCanceled()) {
+				return null;
+			}
 			throw new RuntimeException(e);
+		} catch (RuntimeException e) {
+			// typically an OperationCanceledException, which is a different class with the support library
+			IOUtils.closeQuietly(statement);
+			if (statement != null && statement.isCanceled()) {
+				return null;
+			}
+			throw e;
+		} finally {
+			runningStatement = null;
+		}
+		if (statement.isCanceled()) {
+			// we were canceled after the query finished so nobody is going to use or close the cursor
+			IOUtils.closeQuietly(statement);
+			return null;
 		}
-
-		// fill the cursor with results
-		cursor.getCount();
 		return cursor;
 	}
 
+	/**
+	 * Called by the versions of Android that support canceling a background load. This is not an override because
+	 * versions before JELLY_BEAN (API 16) don't have it.
+	 */
+	public void cancelLoadInBackground() {
+		cancelRunningStatement();
+	}
+
 	@Override
 	public void deliverResult(Cursor newCursor) {
 		if (isReset()) {
@@ -93,6 +129,8 @@ public class OrmLiteCursorLoader<T> extends AsyncTaskLoader<Cursor> implements D
 	@Override
 	protected void onStopLoading() {
 		cancelLoad();
+		// older versions of Android don't call cancelLoadInBackground()
+		cancelRunningStatement();
 	}
 
 	@Override
@@ -129,4 +167,26 @@ public class OrmLiteCursorLoader<T> extends AsyncTaskLoader<Cursor> implements D
 	public void setQuery(PreparedQuery<T> mQuery) {
 		this.query = mQuery;
 	}
+
+	public long getCursorWindowSize() {
+		return cursorWindowSize;
+	}
+
+	/**
+	 * Set the size in bytes of the cursor window used by this loader's query. See
+	 * {@link AndroidCompiledStatement#setCursorWindowSize(long)}.
+	 */
+	public void setCursorWindowSize(long cursorWindowSize) {
+		this.cursorWindowSize = cursorWindowSize;
+	}
+
+	/**
+	 * Cancel the query that is running in the background, if any, so that it stops using the database.
+	 */
+	private void cancelRunningStatement() {
+		AndroidCompiledStatement statement = runningStatement;
+		if (statement != null) {
+			statement.cancel();
+		}
+	}
 }
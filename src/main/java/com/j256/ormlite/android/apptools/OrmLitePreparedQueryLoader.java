@@ -37,7 +37,7 @@ public class OrmLitePreparedQueryLoader<T, ID> extends BaseOrmLiteLoader<T, ID>
 			throw new IllegalStateException("PreparedQuery is not initialized.");
 		}
 		try {
-			return dao.query(preparedQuery);
+			return queryCancellably(preparedQuery);
 		} catch (SQLException e) {
 			// XXX: is this really the right thing to do? Maybe throw RuntimeException?
 			e.printStackTrace();
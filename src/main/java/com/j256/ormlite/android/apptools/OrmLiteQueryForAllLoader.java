@@ -9,8 +9,8 @@ import com.j256.ormlite.dao.Dao;
 import android.content.Context;
 
 /**
- * A <code>Loader</code> implementation that queries specified {@link com.j256.ormlite.dao.Dao} for all data, using the
- * <code>Dao.queryForAll()</code> call.
+ * A <code>Loader</code> implementation that queries specified {@link com.j256.ormlite.dao.Dao} for all data, like the
+ * <code>Dao.queryForAll()</code> call but the query can be aborted if the load is canceled.
  * 
  * @author EgorAnd
  */
@@ -30,7 +30,7 @@ public class OrmLiteQueryForAllLoader<T, ID> extends BaseOrmLiteLoader<T, ID> {
 			throw new IllegalStateException("Dao is not initialized.");
 		}
 		try {
-			return dao.queryForAll();
+			return queryCancellably(dao.queryBuilder().prepare());
 		} catch (SQLException e) {
 			// XXX: is this really the right thing to do? Maybe throw RuntimeException?
 			e.printStackTrace();
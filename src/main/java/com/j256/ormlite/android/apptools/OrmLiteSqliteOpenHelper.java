@@ -1,15 +1,19 @@
 package com.j256.ormlite.android.apptools;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.SQLException;
 
 import com.j256.ormlite.android.AndroidConnectionSource;
 import com.j256.ormlite.android.AndroidDatabaseConnection;
+import com.j256.ormlite.android.DatabaseTableConfigUtil;
+import com.j256.ormlite.dao.BaseDaoImpl;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
 import com.j256.ormlite.dao.RuntimeExceptionDao;
@@ -39,6 +43,7 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 
 	protected boolean cancelQueriesEnabled;
 	private volatile boolean isOpen = true;
+	private BinaryTableConfigFile binaryTableConfigFile;
 
 	/**
 	 * @param context
@@ -132,7 +137,10 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 	 *            Version of the database we are opening. This causes {@link #onUpgrade(SQLiteDatabase, int, int)} to be
 	 *            called if the stored database is a different version.
 	 * @param stream
-	 *            Stream opened to the configuration file to be loaded. It will be closed when this method returns.
+	 *            Stream opened to the configuration file to be loaded. It will be closed when this method returns. This
+	 *            can either be a text file or a binary file written by {@link OrmLiteConfigUtil} with the "-b"
+	 *            argument. The table configurations in a binary file are only decoded when their DAOs are first
+	 *            created.
 	 */
 	public OrmLiteSqliteOpenHelper(Context context, String databaseName, CursorFactory factory, int databaseVersion,
 			InputStream stream) {
@@ -141,6 +149,30 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 			return;
 		}
 
+		if (!(stream instanceof FileInputStream)) {
+			// we need mark/reset to look for the binary magic, file streams are checked through their channel
+			stream = new BufferedInputStream(stream, 4096);
+		}
+		try {
+			if (BinaryTableConfigFile.isBinaryConfigFile(stream)) {
+				binaryTableConfigFile = BinaryTableConfigFile.load(stream);
+				DatabaseTableConfigUtil.addTableConfigProvider(binaryTableConfigFile);
+				logger.trace("{}: loaded binary table config file with {} tables", this,
+						binaryTableConfigFile.getClassNames().size());
+				return;
+			}
+		} catch (IOException e) {
+			IOUtils.closeQuietly(stream);
+			throw new IllegalStateException("Could not read object config file", e);
+		} catch (SQLException e) {
+			IOUtils.closeQuietly(stream);
+			throw new IllegalStateException("Could not load binary object config file", e);
+		} finally {
+			if (binaryTableConfigFile != null) {
+				IOUtils.closeQuietly(stream);
+			}
+		}
+
 		// if a config file-id was specified then load it into the DaoManager
 		BufferedReader reader = null;
 		try {
@@ -227,6 +259,11 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 		}
 		try {
 			onCreate(db, cs);
+			/*
+			 * The tables may have changed so the objects cached by an adopted connection source's DAOs are stale. Those
+			 * DAOs may have been created through the DaoManager directly so we clear all of the caches.
+			 */
+			BaseDaoImpl.clearAllInternalObjectCaches();
 		} finally {
 			if (clearSpecial) {
 				cs.clearSpecialConnection(conn);
@@ -258,6 +295,11 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 		}
 		try {
 			onUpgrade(db, cs, oldVersion, newVersion);
+			/*
+			 * The tables may have changed so the objects cached by an adopted connection source's DAOs are stale. Those
+			 * DAOs may have been created through the DaoManager directly so we clear all of the caches.
+			 */
+			BaseDaoImpl.clearAllInternalObjectCaches();
 		} finally {
 			if (clearSpecial) {
 				cs.clearSpecialConnection(conn);
@@ -265,6 +307,22 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 		}
 	}
 
+	/**
+	 * Take over the connection source of a previous helper for the same database which has been closed. The connection
+	 * source is rebound to this helper so the DAOs that the {@link DaoManager} has cached for it, and the foreign
+	 * collections in the objects that they returned, keep working without being re-created. This is called by
+	 * {@link OpenHelperManager} when the helper is re-created and must be called before the database is opened.
+	 */
+	public void adoptConnectionSource(OrmLiteSqliteOpenHelper previousHelper) {
+		if (previousHelper.isOpen()) {
+			throw new IllegalStateException("Previous helper " + previousHelper + " has not been closed");
+		}
+		AndroidConnectionSource previousConnectionSource = previousHelper.connectionSource;
+		previousConnectionSource.rebind(this);
+		logger.trace("{}: adopted connectionSource {} from {}", this, previousConnectionSource, previousHelper);
+		connectionSource = previousConnectionSource;
+	}
+
 	/**
 	 * Close any open connections.
 	 */
@@ -272,6 +330,9 @@ public abstract class OrmLiteSqliteOpenHelper extends SQLiteOpenHelper {
 	public void close() {
 		super.close();
 		connectionSource.close();
+		if (binaryTableConfigFile != null) {
+			DatabaseTableConfigUtil.removeTableConfigProvider(binaryTableConfigFile);
+		}
 		/*
 		 * We used to set connectionSource to null here but now we just set the closed flag and then log heavily if
 		 * someone uses getConectionSource() after this point.
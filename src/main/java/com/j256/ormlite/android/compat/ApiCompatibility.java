@@ -2,6 +2,7 @@ package com.j256.ormlite.android.compat;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabase.CursorFactory;
 
 /**
  * Compatibility interface to support various different versions of the Android API.
@@ -15,6 +16,20 @@ public interface ApiCompatibility {
 	 */
 	public Cursor rawQuery(SQLiteDatabase db, String sql, String[] selectionArgs, CancellationHook cancellationHook);
 
+	/**
+	 * Perform a raw query on a database using a cursor factory with an optional cancellation-hook. No selection
+	 * arguments are passed to the query so the factory is responsible for binding them.
+	 */
+	public Cursor rawQueryWithFactory(SQLiteDatabase db, CursorFactory cursorFactory, String sql,
+			CancellationHook cancellationHook);
+
+	/**
+	 * Replace the window of a cursor that was just returned by one of the raw-query methods with a window of a certain
+	 * size in bytes. This must be called before the cursor is moved. Returns true if the window was replaced or false
+	 * if not supported in which case the cursor will use Android's default window size.
+	 */
+	public boolean setCursorWindowSize(Cursor cursor, long windowSizeBytes);
+
 	/**
 	 * Return a cancellation hook object that will be passed to the
 	 * {@link #rawQuery(SQLiteDatabase, String, String[], CancellationHook)}. If not supported then this will return
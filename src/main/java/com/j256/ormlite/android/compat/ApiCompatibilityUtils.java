@@ -34,9 +34,12 @@ public class ApiCompatibilityUtils {
 	private static final int JELLY_BEAN = 16;
 	private static final int JELLY_BEAN_MR1 = 17;
 	private static final int JELLY_BEAN_MR2 = 18;
+	private static final int P = 28;
 
 	static {
-		if (Build.VERSION.SDK_INT >= JELLY_BEAN) {
+		if (Build.VERSION.SDK_INT >= P) {
+			compatibility = new PieApiCompatibility();
+		} else if (Build.VERSION.SDK_INT >= JELLY_BEAN) {
 			compatibility = new JellyBeanApiCompatibility();
 		} else {
 			compatibility = new BasicApiCompatibility();
@@ -2,6 +2,7 @@ package com.j256.ormlite.android.compat;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabase.CursorFactory;
 
 /**
  * Basic class which provides no-op methods for all Android version.
@@ -16,6 +17,19 @@ public class BasicApiCompatibility implements ApiCompatibility {
 		return db.rawQuery(sql, selectionArgs);
 	}
 
+	@Override
+	public Cursor rawQueryWithFactory(SQLiteDatabase db, CursorFactory cursorFactory, String sql,
+			CancellationHook cancellationHook) {
+		// NOTE: cancellationHook will always be null
+		return db.rawQueryWithFactory(cursorFactory, sql, null, null);
+	}
+
+	@Override
+	public boolean setCursorWindowSize(Cursor cursor, long windowSizeBytes) {
+		// window sizes cannot be specified until PIE
+		return false;
+	}
+
 	@Override
 	public CancellationHook createCancellationHook() {
 		return null;
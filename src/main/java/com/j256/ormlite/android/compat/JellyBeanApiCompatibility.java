@@ -2,6 +2,7 @@ package com.j256.ormlite.android.compat;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabase.CursorFactory;
 import android.os.CancellationSignal;
 
 /**
@@ -24,6 +25,17 @@ public class JellyBeanApiCompatibility extends BasicApiCompatibility {
 		}
 	}
 
+	@Override
+	public Cursor rawQueryWithFactory(SQLiteDatabase db, CursorFactory cursorFactory, String sql,
+			CancellationHook cancellationHook) {
+		if (cancellationHook == null) {
+			return db.rawQueryWithFactory(cursorFactory, sql, null, null);
+		} else {
+			return db.rawQueryWithFactory(cursorFactory, sql, null, null,
+					((JellyBeanCancellationHook) cancellationHook).cancellationSignal);
+		}
+	}
+
 	@Override
 	public CancellationHook createCancellationHook() {
 		return new JellyBeanCancellationHook();
@@ -0,0 +1,54 @@
+package com.j256.ormlite.android.compat;
+
+import java.lang.reflect.Constructor;
+
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.CursorWindow;
+
+/**
+ * Class which adds support for sizing the cursor window in Android Pie (API 28) and after.
+ * 
+ * <p>
+ * <b>NOTE:</b> The CursorWindow(String, long) constructor was added in API 28 which is newer than the Android version
+ * that we compile against so it is looked up with reflection.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class PieApiCompatibility extends JellyBeanApiCompatibility {
+
+	private static Logger logger = LoggerFactory.getLogger(PieApiCompatibility.class);
+	private static final Constructor<CursorWindow> windowConstructor;
+
+	static {
+		Constructor<CursorWindow> constructor;
+		try {
+			constructor = CursorWindow.class.getConstructor(String.class, long.class);
+		} catch (Exception e) {
+			logger.warn(e, "could not find the CursorWindow(String, long) constructor, cannot size cursor windows");
+			constructor = null;
+		}
+		windowConstructor = constructor;
+	}
+
+	@Override
+	public boolean setCursorWindowSize(Cursor cursor, long windowSizeBytes) {
+		if (windowConstructor == null || !(cursor instanceof AbstractWindowedCursor)) {
+			return false;
+		}
+		CursorWindow window;
+		try {
+			window = windowConstructor.newInstance(null, windowSizeBytes);
+		} catch (Exception e) {
+			logger.warn(e, "could not create cursor window of {} bytes", windowSizeBytes);
+			return false;
+		}
+		// this needs to be done before the cursor is first filled otherwise it will allocate the default sized window
+		((AbstractWindowedCursor) cursor).setWindow(window);
+		return true;
+	}
+}
@@ -2,6 +2,7 @@ package com.j256.ormlite.db;
 
 import java.sql.SQLException;
 
+import com.j256.ormlite.android.AndroidDatabaseConnection;
 import com.j256.ormlite.android.DatabaseTableConfigUtil;
 import com.j256.ormlite.field.DataPersister;
 import com.j256.ormlite.field.FieldType;
@@ -13,6 +14,8 @@ import com.j256.ormlite.field.types.TimeStampType;
 import com.j256.ormlite.support.ConnectionSource;
 import com.j256.ormlite.table.DatabaseTableConfig;
 
+import android.os.Build;
+
 /**
  * Sqlite database type information for the Android OS that makes native calls to the Android OS database APIs.
  * 
@@ -23,6 +26,19 @@ import com.j256.ormlite.table.DatabaseTableConfig;
  */
 public class SqliteAndroidDatabaseType extends BaseSqliteDatabaseType {
 
+	/**
+	 * Maximum number of ? host parameters in a statement for sqlite versions before 3.32.0.
+	 */
+	public static final int DEFAULT_MAX_HOST_PARAMETERS = 999;
+	/**
+	 * Maximum number of ? host parameters in a statement for sqlite versions 3.32.0 and after.
+	 */
+	public static final int LARGE_MAX_HOST_PARAMETERS = 32766;
+	/**
+	 * Before sqlite 3.8.8, multi-row VALUES were limited by the maximum number of terms in a compound select.
+	 */
+	private static final int MAX_COMPOUND_SELECT_TERMS = 500;
+
 	@Override
 	public boolean loadDriver() {
 		// noop
@@ -85,9 +101,13 @@ public class SqliteAndroidDatabaseType extends BaseSqliteDatabaseType {
 		}
 	}
 
+	/**
+	 * Save-points that are set inside of a transaction use sqlite's SAVEPOINT, RELEASE, and ROLLBACK TO so they can be
+	 * rolled back without affecting the outer transaction. See {@link AndroidDatabaseConnection#setSavePoint(String)}.
+	 */
 	@Override
 	public boolean isNestedSavePointsSupported() {
-		return false;
+		return true;
 	}
 
 	@Override
@@ -95,6 +115,42 @@ public class SqliteAndroidDatabaseType extends BaseSqliteDatabaseType {
 		return true;
 	}
 
+	/**
+	 * Return true if the database supports multi-row INSERT INTO table (...) VALUES (...),(...) statements. This was
+	 * added in sqlite 3.7.11 which shipped with JELLY_BEAN.
+	 */
+	public boolean isMultiRowInsertSupported() {
+		return Build.VERSION.SDK_INT >= 16; // Build.VERSION_CODES.JELLY_BEAN
+	}
+
+	/**
+	 * Return the maximum number of ? host parameters that can be used in a single statement. Sqlite 3.32.0, which
+	 * shipped with Android S, raised the limit from 999 to 32766.
+	 */
+	public int getMaxHostParameters() {
+		if (Build.VERSION.SDK_INT >= 31) { // Build.VERSION_CODES.S
+			return LARGE_MAX_HOST_PARAMETERS;
+		} else {
+			return DEFAULT_MAX_HOST_PARAMETERS;
+		}
+	}
+
+	/**
+	 * Return the maximum number of rows that can be inserted with a single multi-row insert statement when each row has
+	 * a certain number of columns. This returns 0 if a single row has more columns than
+	 * {@link #getMaxHostParameters()}.
+	 */
+	public int getMultiRowInsertChunkSize(int numColumns) {
+		if (numColumns <= 0) {
+			throw new IllegalArgumentException("Number of columns must be positive: " + numColumns);
+		}
+		int chunkSize = getMaxHostParameters() / numColumns;
+		if (Build.VERSION.SDK_INT < 24) { // Build.VERSION_CODES.N which shipped with sqlite 3.9
+			chunkSize = Math.min(chunkSize, MAX_COMPOUND_SELECT_TERMS);
+		}
+		return chunkSize;
+	}
+
 	@Override
 	public <T> DatabaseTableConfig<T> extractDatabaseTableConfig(ConnectionSource connectionSource, Class<T> clazz)
 			throws SQLException {
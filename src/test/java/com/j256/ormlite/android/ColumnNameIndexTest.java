@@ -0,0 +1,103 @@
+package com.j256.ormlite.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ColumnNameIndexTest {
+
+	@Test
+	public void testFindColumn() {
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, new String[] { "id", "name", "value" });
+		assertEquals(0, index.findColumn("id"));
+		assertEquals(1, index.findColumn("name"));
+		assertEquals(2, index.findColumn("value"));
+		assertEquals(-1, index.findColumn("unknown"));
+	}
+
+	@Test
+	public void testFindColumnMap() {
+		String[] columnNames = new String[20];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = "column" + i;
+		}
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, columnNames);
+		for (int i = 0; i < columnNames.length; i++) {
+			assertEquals(i, index.findColumn("column" + i));
+		}
+		assertEquals(-1, index.findColumn("unknown"));
+	}
+
+	@Test
+	public void testCaseSensitive() {
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, new String[] { "id", "Name", "`Value`" });
+		assertEquals(1, index.findColumn("Name"));
+		assertEquals(-1, index.findColumn("name"));
+		assertEquals(2, index.findColumn("Value"));
+		assertEquals(-1, index.findColumn("value"));
+	}
+
+	@Test
+	public void testEscaped() {
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, new String[] { "`id`", "`name`", "`t`.`c`" });
+		assertEquals(0, index.findColumn("id"));
+		assertEquals(0, index.findColumn("`id`"));
+		assertEquals(1, index.findColumn("name"));
+		assertEquals(2, index.findColumn("t.c"));
+		assertEquals(2, index.findColumn("`t`.`c`"));
+		assertEquals(-1, index.findColumn("t"));
+		assertEquals(-1, index.findColumn("c"));
+	}
+
+	@Test
+	public void testEscapedMap() {
+		String[] columnNames = new String[20];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = "`t`.`column" + i + "`";
+		}
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, columnNames);
+		for (int i = 0; i < columnNames.length; i++) {
+			assertEquals(i, index.findColumn("t.column" + i));
+		}
+	}
+
+	@Test
+	public void testNotEscaped() {
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, new String[] { "`a", "b`", "`c`.d", "``" });
+		assertEquals(0, index.findColumn("`a"));
+		assertEquals(-1, index.findColumn("a"));
+		assertEquals(1, index.findColumn("b`"));
+		assertEquals(-1, index.findColumn("b"));
+		assertEquals(-1, index.findColumn("c.d"));
+		assertEquals(2, index.findColumn("`c`.d"));
+	}
+
+	@Test
+	public void testDuplicateNames() {
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, new String[] { "id", "name", "id", "`name`" });
+		assertEquals(0, index.findColumn("id"));
+		assertEquals(1, index.findColumn("name"));
+	}
+
+	@Test
+	public void testDuplicateNamesMap() {
+		String[] columnNames = new String[20];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = "column" + (i % 5);
+		}
+		ColumnNameIndex index = ColumnNameIndex.forColumns(null, columnNames);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i, index.findColumn("column" + i));
+		}
+	}
+
+	@Test
+	public void testSharedBySql() {
+		String sql = "SELECT id, name FROM shared";
+		ColumnNameIndex index = ColumnNameIndex.forColumns(sql, new String[] { "id", "name" });
+		assertSame(index, ColumnNameIndex.forColumns(sql, new String[] { "id", "name" }));
+		ColumnNameIndex other = ColumnNameIndex.forColumns(sql, new String[] { "name", "id" });
+		assertEquals(0, other.findColumn("name"));
+	}
+}
@@ -0,0 +1,114 @@
+package com.j256.ormlite.android;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.db.SqliteAndroidDatabaseType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.DatabaseFieldConfig;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.table.DatabaseTableConfig;
+
+public class DatabaseTableConfigUtilTest {
+
+	private static final String NAME_COLUMN = "foo_name";
+
+	private final DatabaseType databaseType = new SqliteAndroidDatabaseType();
+
+	@Test
+	public void testCacheMissThenHit() throws Exception {
+		DatabaseTableConfigUtil.clearTableConfigCache();
+		assertFalse(DatabaseTableConfigUtil.isTableConfigCached(databaseType, Foo.class));
+		DatabaseTableConfig<Foo> config1 = DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class);
+		assertTrue(DatabaseTableConfigUtil.isTableConfigCached(databaseType, Foo.class));
+		DatabaseTableConfig<Foo> config2 = DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class);
+
+		assertNotSame(config1, config2);
+		assertEquals(config1.getTableName(), config2.getTableName());
+		List<DatabaseFieldConfig> fieldConfigs1 = config1.getFieldConfigs();
+		List<DatabaseFieldConfig> fieldConfigs2 = config2.getFieldConfigs();
+		assertNotSame(fieldConfigs1, fieldConfigs2);
+		assertEquals(2, fieldConfigs1.size());
+		assertEquals(fieldConfigs1.size(), fieldConfigs2.size());
+		for (int i = 0; i < fieldConfigs1.size(); i++) {
+			DatabaseFieldConfig fieldConfig1 = fieldConfigs1.get(i);
+			DatabaseFieldConfig fieldConfig2 = fieldConfigs2.get(i);
+			assertNotSame(fieldConfig1, fieldConfig2);
+			assertEquals(fieldConfig1.getFieldName(), fieldConfig2.getFieldName());
+			assertEquals(fieldConfig1.getColumnName(), fieldConfig2.getColumnName());
+			assertEquals(fieldConfig1.isId(), fieldConfig2.isId());
+			assertEquals(fieldConfig1.getWidth(), fieldConfig2.getWidth());
+		}
+	}
+
+	@Test
+	public void testChangedFieldConfigNotShared() throws Exception {
+		DatabaseTableConfigUtil.clearTableConfigCache();
+		DatabaseTableConfig<Foo> config1 = DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class);
+		DatabaseFieldConfig nameConfig = findFieldConfig(config1, "name");
+		assertEquals(NAME_COLUMN, nameConfig.getColumnName());
+		nameConfig.setColumnName("changed");
+
+		DatabaseTableConfig<Foo> config2 = DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class);
+		assertEquals(NAME_COLUMN, findFieldConfig(config2, "name").getColumnName());
+	}
+
+	@Test
+	public void testClearTableConfigCache() throws Exception {
+		DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class);
+		assertTrue(DatabaseTableConfigUtil.isTableConfigCached(databaseType, Foo.class));
+		DatabaseTableConfigUtil.clearTableConfigCache();
+		assertFalse(DatabaseTableConfigUtil.isTableConfigCached(databaseType, Foo.class));
+		assertNotNull(DatabaseTableConfigUtil.fromClass(createConnectionSource(), Foo.class));
+		assertTrue(DatabaseTableConfigUtil.isTableConfigCached(databaseType, Foo.class));
+	}
+
+	@Test
+	public void testNoFields() throws Exception {
+		DatabaseTableConfigUtil.clearTableConfigCache();
+		assertNull(DatabaseTableConfigUtil.fromClass(createConnectionSource(), NoFields.class));
+		// classes without fields are cached as well
+		assertTrue(DatabaseTableConfigUtil.isTableConfigCached(databaseType, NoFields.class));
+		assertNull(DatabaseTableConfigUtil.fromClass(createConnectionSource(), NoFields.class));
+	}
+
+	private ConnectionSource createConnectionSource() {
+		ConnectionSource connectionSource = createMock(ConnectionSource.class);
+		expect(connectionSource.getDatabaseType()).andReturn(databaseType).anyTimes();
+		replay(connectionSource);
+		return connectionSource;
+	}
+
+	private DatabaseFieldConfig findFieldConfig(DatabaseTableConfig<?> tableConfig, String fieldName) {
+		for (DatabaseFieldConfig fieldConfig : tableConfig.getFieldConfigs()) {
+			if (fieldConfig.getFieldName().equals(fieldName)) {
+				return fieldConfig;
+			}
+		}
+		throw new IllegalArgumentException("no field config for " + fieldName);
+	}
+
+	protected static class Foo {
+		@DatabaseField(id = true)
+		String id;
+		@DatabaseField(columnName = NAME_COLUMN, width = 100)
+		String name;
+		String notPersisted;
+	}
+
+	protected static class NoFields {
+		String notPersisted;
+	}
+}
@@ -0,0 +1,187 @@
+package com.j256.ormlite.android;
+
+import static org.easymock.EasyMock.aryEq;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isNull;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.ObjectCache;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.field.SqlType;
+import com.j256.ormlite.stmt.GenericRowMapper;
+import com.j256.ormlite.stmt.StatementBuilder.StatementType;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseResults;
+
+public class KeysetIteratorTest {
+
+	private static final String TABLE_NAME = "foo";
+	private static final String FIRST_PAGE_SQL = "SELECT * FROM `foo` ORDER BY `id` LIMIT 2";
+	private static final String NEXT_PAGE_SQL = "SELECT * FROM `foo` WHERE (`id` > ?) ORDER BY `id` LIMIT 2";
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadPageSize() throws Exception {
+		new KeysetIterator<String>(null, 0, "id");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoKeyColumns() throws Exception {
+		new KeysetIterator<String>(null, 10);
+	}
+
+	@Test
+	public void testPages() throws Exception {
+		ConnectionSource connectionSource = createMock(ConnectionSource.class);
+		DatabaseConnection connection = createMock(DatabaseConnection.class);
+		GenericRowMapper<String> rowMapper = createRowMapper();
+		Dao<String, Object> dao = createDao(connectionSource, rowMapper);
+
+		// the first page is full so the key of its last row is read as a string since this isn't an android cursor
+		CompiledStatement firstStmt = createMock(CompiledStatement.class);
+		DatabaseResults firstResults = createMock(DatabaseResults.class);
+		expectCompile(connectionSource, connection, FIRST_PAGE_SQL, firstStmt, firstResults);
+		expect(firstResults.first()).andReturn(true);
+		expect(rowMapper.mapRow(firstResults)).andReturn("row1");
+		expect(firstResults.next()).andReturn(true);
+		expect(rowMapper.mapRow(firstResults)).andReturn("row2");
+		expect(firstResults.next()).andReturn(false);
+		expect(firstResults.last()).andReturn(true);
+		expect(firstResults.findColumn("id")).andReturn(0);
+		expect(firstResults.wasNull(0)).andReturn(false);
+		expect(firstResults.getString(0)).andReturn("2");
+		expectClose(connectionSource, connection, firstStmt, firstResults);
+
+		// the second page is short so it is the last one
+		CompiledStatement nextStmt = createMock(CompiledStatement.class);
+		DatabaseResults nextResults = createMock(DatabaseResults.class);
+		expectCompile(connectionSource, connection, NEXT_PAGE_SQL, nextStmt, nextResults);
+		nextStmt.setObject(0, "2", SqlType.STRING);
+		expect(nextResults.first()).andReturn(true);
+		expect(rowMapper.mapRow(nextResults)).andReturn("row3");
+		expect(nextResults.next()).andReturn(false);
+		expectClose(connectionSource, connection, nextStmt, nextResults);
+
+		replay(connectionSource, connection, rowMapper, dao, firstStmt, firstResults, nextStmt, nextResults);
+		KeysetIterator<String> iterator = new KeysetIterator<String>(dao, 2, "id");
+		assertTrue(iterator.hasNext());
+		assertEquals("row1", iterator.next());
+		assertEquals("row1", iterator.current());
+		assertTrue(iterator.hasNext());
+		assertEquals("row2", iterator.next());
+		assertTrue(iterator.hasNext());
+		assertEquals("row3", iterator.next());
+		assertFalse(iterator.hasNext());
+		assertNull(iterator.nextThrow());
+		assertNull(iterator.getRawResults());
+		iterator.close();
+		verify(connectionSource, connection, rowMapper, dao, firstStmt, firstResults, nextStmt, nextResults);
+	}
+
+	@Test
+	public void testEmptyTable() throws Exception {
+		ConnectionSource connectionSource = createMock(ConnectionSource.class);
+		DatabaseConnection connection = createMock(DatabaseConnection.class);
+		GenericRowMapper<String> rowMapper = createRowMapper();
+		Dao<String, Object> dao = createDao(connectionSource, rowMapper);
+		CompiledStatement stmt = createMock(CompiledStatement.class);
+		DatabaseResults results = createMock(DatabaseResults.class);
+		expectCompile(connectionSource, connection, FIRST_PAGE_SQL, stmt, results);
+		expect(results.first()).andReturn(false);
+		expectClose(connectionSource, connection, stmt, results);
+
+		replay(connectionSource, connection, rowMapper, dao, stmt, results);
+		KeysetIterator<String> iterator = new KeysetIterator<String>(dao, 2, "id");
+		assertFalse(iterator.hasNext());
+		// closed once there are no more rows so we don't query again
+		assertFalse(iterator.hasNext());
+		verify(connectionSource, connection, rowMapper, dao, stmt, results);
+	}
+
+	@Test
+	public void testNullKey() throws Exception {
+		ConnectionSource connectionSource = createMock(ConnectionSource.class);
+		DatabaseConnection connection = createMock(DatabaseConnection.class);
+		GenericRowMapper<String> rowMapper = createRowMapper();
+		Dao<String, Object> dao = createDao(connectionSource, rowMapper);
+		CompiledStatement stmt = createMock(CompiledStatement.class);
+		DatabaseResults results = createMock(DatabaseResults.class);
+		expectCompile(connectionSource, connection, FIRST_PAGE_SQL, stmt, results);
+		expect(results.first()).andReturn(true);
+		expect(rowMapper.mapRow(results)).andReturn("row1");
+		expect(results.next()).andReturn(true);
+		expect(rowMapper.mapRow(results)).andReturn("row2");
+		expect(results.next()).andReturn(false);
+		expect(results.last()).andReturn(true);
+		expect(results.findColumn("id")).andReturn(0);
+		expect(results.wasNull(0)).andReturn(true);
+		expectClose(connectionSource, connection, stmt, results);
+
+		replay(connectionSource, connection, rowMapper, dao, stmt, results);
+		KeysetIterator<String> iterator = new KeysetIterator<String>(dao, 2, "id");
+		try {
+			iterator.hasNext();
+			fail("should have thrown");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertFalse(iterator.hasNext());
+		verify(connectionSource, connection, rowMapper, dao, stmt, results);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPrevious() throws Exception {
+		ConnectionSource connectionSource = createMock(ConnectionSource.class);
+		GenericRowMapper<String> rowMapper = createRowMapper();
+		Dao<String, Object> dao = createDao(connectionSource, rowMapper);
+		replay(connectionSource, rowMapper, dao);
+		new KeysetIterator<String>(dao, 2, "id").previous();
+	}
+
+	private Dao<String, Object> createDao(ConnectionSource connectionSource, GenericRowMapper<String> rowMapper)
+			throws Exception {
+		@SuppressWarnings("unchecked")
+		Dao<String, Object> dao = createMock(Dao.class);
+		expect(dao.getConnectionSource()).andReturn(connectionSource);
+		expect(dao.getTableName()).andReturn(TABLE_NAME);
+		expect(dao.getSelectStarRowMapper()).andReturn(rowMapper);
+		return dao;
+	}
+
+	private GenericRowMapper<String> createRowMapper() {
+		@SuppressWarnings("unchecked")
+		GenericRowMapper<String> rowMapper = createMock(GenericRowMapper.class);
+		return rowMapper;
+	}
+
+	private void expectCompile(ConnectionSource connectionSource, DatabaseConnection connection, String sql,
+			CompiledStatement stmt, DatabaseResults results) throws Exception {
+		expect(connectionSource.getReadOnlyConnection(TABLE_NAME)).andReturn(connection);
+		expect(connection.compileStatement(eq(sql), eq(StatementType.SELECT), aryEq(new FieldType[0]),
+				eq(DatabaseConnection.DEFAULT_RESULT_FLAGS), eq(false))).andReturn(stmt);
+		expect(stmt.runQuery((ObjectCache) isNull())).andReturn(results);
+	}
+
+	private void expectClose(ConnectionSource connectionSource, DatabaseConnection connection,
+			CompiledStatement stmt, DatabaseResults results) throws Exception {
+		results.close();
+		expectLastCall();
+		stmt.close();
+		expectLastCall();
+		connectionSource.releaseConnection(connection);
+		expectLastCall();
+	}
+}
@@ -1,16 +1,24 @@
 package com.j256.ormlite.android.apptools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.util.Collection;
 
 import org.junit.Test;
 
 import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.field.DatabaseFieldConfig;
 import com.j256.ormlite.field.ForeignCollectionField;
+import com.j256.ormlite.table.DatabaseTableConfig;
 
 public class OrmLiteConfigUtilTest {
 
@@ -80,6 +88,64 @@ public class OrmLiteConfigUtilTest {
 				+ "foreign=true" + lineSeparator));
 	}
 
+	@Test
+	public void testBinary() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OrmLiteConfigUtil.writeBinaryConfigFile(output, new Class[] { Foo.class, Bar.class }, true);
+		InputStream input = new BufferedInputStream(new ByteArrayInputStream(output.toByteArray()));
+		assertTrue(BinaryTableConfigFile.isBinaryConfigFile(input));
+		BinaryTableConfigFile configFile = BinaryTableConfigFile.load(input);
+		assertEquals(2, configFile.getClassNames().size());
+
+		DatabaseTableConfig<Foo> fooConfig = configFile.getTableConfig(null, Foo.class);
+		assertNotNull(fooConfig);
+		assertEquals(Foo.class, fooConfig.getDataClass());
+		assertEquals(2, fooConfig.getFieldConfigs().size());
+		DatabaseFieldConfig idConfig = fooConfig.getFieldConfigs().get(0);
+		assertEquals("id", idConfig.getFieldName());
+		assertTrue(idConfig.isId());
+		DatabaseFieldConfig foreignConfig = fooConfig.getFieldConfigs().get(1);
+		assertEquals("foreign", foreignConfig.getFieldName());
+		assertTrue(foreignConfig.isForeign());
+
+		DatabaseTableConfig<Bar> barConfig = configFile.getTableConfig(null, Bar.class);
+		assertNotNull(barConfig);
+		assertEquals(Bar.class, barConfig.getDataClass());
+		assertNull(configFile.getTableConfig(null, Foreign.class));
+	}
+
+	@Test
+	public void testTextIsNotBinary() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OrmLiteConfigUtil.writeConfigFile(output, new Class[] { Foo.class });
+		InputStream input = new BufferedInputStream(new ByteArrayInputStream(output.toByteArray()));
+		assertFalse(BinaryTableConfigFile.isBinaryConfigFile(input));
+		// the stream should not have moved
+		assertEquals('#', input.read());
+	}
+
+	@Test
+	public void testUnchangedNotRewritten() throws Exception {
+		File configFile = File.createTempFile(getClass().getSimpleName(), ".txt");
+		File cacheFile = OrmLiteConfigUtil.getScanCacheFile(configFile);
+		File searchDir = new File("src/test/java/com/j256/ormlite/android/apptools/");
+		try {
+			assertTrue(OrmLiteConfigUtil.writeConfigFileIfChanged(configFile, searchDir, false, false));
+			assertTrue(cacheFile.exists());
+			assertTrue(configFile.length() > 0);
+			assertFalse(OrmLiteConfigUtil.writeConfigFileIfChanged(configFile, searchDir, false, false));
+			// different options write the file again
+			assertTrue(OrmLiteConfigUtil.writeConfigFileIfChanged(configFile, searchDir, false, true));
+			assertFalse(OrmLiteConfigUtil.writeConfigFileIfChanged(configFile, searchDir, false, true));
+			// without the cache we have to scan everything again
+			assertTrue(cacheFile.delete());
+			assertTrue(OrmLiteConfigUtil.writeConfigFileIfChanged(configFile, searchDir, false, true));
+		} finally {
+			configFile.delete();
+			cacheFile.delete();
+		}
+	}
+
 	protected static class Foo {
 		@DatabaseField(id = true)
 		int id;